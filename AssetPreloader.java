@@ -0,0 +1,79 @@
+import greenfoot.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decodes, scales and pre-rotates the images and creates every sound GameWorld
+// needs on background threads, started while the title screen is up, so the
+// game finds them waiting in SpriteCache and SoundCache instead of loading
+// them as its first frames run. An asset that fails to load only counts as
+// done; whoever needs it later loads it (or its fallback) the usual way.
+public class AssetPreloader
+{
+    private static final String[] MUSIC = { "bgmusic.mp3", "gameover.mp3" };
+
+    private static final AtomicInteger done = new AtomicInteger();
+    private static int total = 0;
+    private static boolean started = false;
+
+    public static synchronized void start()
+    {
+        if (started) return;
+        started = true;
+
+        load(() -> SpriteCache.get("bg.png", Simulation.WIDTH, Simulation.HEIGHT));
+        load(() -> SpriteCache.get("player.png", 50, 50));
+        load(() -> SpriteCache.get("enemy.png", EnemySwarm.SIZE, EnemySwarm.SIZE));
+
+        // Stars and enemies are on screen from the first frame, in every rotation
+        load(() -> EntityLayer.starSprite().bakeAll());
+        load(() -> Enemy.sprite().bakeAll());
+        load(() -> EcsLayer.bulletSprite().bakeAll());
+        load(() -> BossBulletLayer.sprite().bakeAll());
+        // The boss in both colours, or its painted stand-in if boss.png is missing
+        load(() -> Boss.sprite(false).bakeAll());
+        load(() -> Boss.sprite(true).bakeAll());
+
+        for (String file : MUSIC)
+        {
+            load(() -> SoundCache.preload(file));
+        }
+        for (int effect = 0; effect < SoundManager.EFFECTS; effect++)
+        {
+            String file = SoundManager.getFile(effect);
+            for (int i = 0; i < SoundManager.getVoiceCount(effect); i++)
+            {
+                load(() -> SoundCache.preload(file));
+            }
+        }
+    }
+
+    private static void load(Runnable asset)
+    {
+        total++;
+        ForkJoinPool.commonPool().execute(() -> {
+            try
+            {
+                asset.run();
+            }
+            catch (RuntimeException e)
+            {
+                System.out.println("Preloading failed: " + e.getMessage());
+            }
+            finally
+            {
+                done.incrementAndGet();
+            }
+        });
+    }
+
+    // 0 to 100
+    public static synchronized int getProgress()
+    {
+        return total == 0 ? 0 : done.get() * 100 / total;
+    }
+
+    public static synchronized boolean isDone()
+    {
+        return started && done.get() == total;
+    }
+}
@@ -0,0 +1,221 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Plays many independent games at once, for balance tuning and bot testing.
+// Usage: java BatchRunner [runs] [policy] [seed] [maxTicks] [startLevel]
+// Each run gets its own Simulation, its own seed drawn from seed, and its own
+// InputPolicy: "wander" (WanderPolicy), "seek" (SeekPolicy) or "mixed" (the
+// two taking turns). Runs share nothing, so they all go to one work-stealing
+// pool, and each one plays until game over, the win at level 100, or maxTicks.
+// -Dthreads=N sizes the pool (all cores by default), -Dresults=file.csv
+// writes one line per run, and -Dreplays=dir records every run for
+// ReplayRunner, so any odd result can be played back on its own.
+public class BatchRunner
+{
+    public static class Result
+    {
+        final int run;
+        final long seed;
+        final String policy;
+        final long ticks;
+        final int highestLevel;
+        final int score;
+        final boolean won;
+        final boolean gameOver;
+        final long nanos;
+
+        Result(int run, long seed, String policy, Simulation sim, long ticks, int highestLevel, long nanos)
+        {
+            this.run = run;
+            this.seed = seed;
+            this.policy = policy;
+            this.ticks = ticks;
+            this.highestLevel = highestLevel;
+            this.score = sim.getScore();
+            this.won = sim.isGameWon();
+            this.gameOver = sim.isGameOver();
+            this.nanos = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        String policy = args.length > 1 ? args[1] : "mixed";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        long maxTicks = args.length > 3 ? Long.parseLong(args[3]) : 1000000;
+        int startLevel = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+        String replays = System.getProperty("replays");
+        if (replays != null)
+        {
+            new File(replays).mkdirs();
+        }
+
+        // Unknown names fail here, before anything is queued
+        if (!policy.equals("mixed"))
+        {
+            policy(policy, 0);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        SeededRandom seeds = new SeededRandom(seed);
+        List<ForkJoinTask<Result>> jobs = new ArrayList<ForkJoinTask<Result>>();
+
+        long start = System.nanoTime();
+        for (int r = 0; r < runs; r++)
+        {
+            final int run = r;
+            final long runSeed = seeds.nextLong();
+            jobs.add(pool.submit(() -> play(run, runSeed, policy, maxTicks, startLevel, replays)));
+        }
+
+        List<Result> results = new ArrayList<Result>();
+        int failed = 0;
+        for (int r = 0; r < runs; r++)
+        {
+            try
+            {
+                results.add(jobs.get(r).get());
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for run " + r, e);
+            }
+            catch (ExecutionException e)
+            {
+                // The seed and policy are enough to play the run again on its own
+                failed++;
+                System.out.println("Run " + r + " failed: " + e.getCause());
+                e.getCause().printStackTrace(System.out);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        report(results, failed, threads, seed, seconds);
+
+        String resultsFile = System.getProperty("results");
+        if (resultsFile != null)
+        {
+            save(results, resultsFile);
+            System.out.println("Results:       " + resultsFile);
+        }
+
+        if (failed > 0)
+        {
+            System.exit(1);
+        }
+    }
+
+    private static Result play(int run, long seed, String policyName, long maxTicks, int startLevel, String replays)
+    {
+        Replay replay = new Replay(seed, startLevel, 0);
+        Simulation sim = replay.createSimulation(null);
+        String name = policyName.equals("mixed") ? (run % 2 == 0 ? "wander" : "seek") : policyName;
+        InputPolicy policy = policy(name, ~seed);
+
+        long start = System.nanoTime();
+        long ticks = 0;
+        int highestLevel = startLevel;
+        while (!sim.isGameOver() && ticks < maxTicks)
+        {
+            int input = policy.nextInput(sim);
+            sim.tick(input);
+            if (replays != null) replay.record(input);
+            highestLevel = Math.max(highestLevel, sim.getLevel());
+            ticks++;
+        }
+        long nanos = System.nanoTime() - start;
+
+        if (replays != null)
+        {
+            replay.finish(sim);
+            try
+            {
+                replay.save(new File(replays, "run-" + run + ".replay").getPath());
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new Result(run, seed, name, sim, ticks, highestLevel, nanos);
+    }
+
+    private static InputPolicy policy(String name, long seed)
+    {
+        switch (name)
+        {
+            case "wander": return new WanderPolicy(seed);
+            case "seek": return new SeekPolicy(seed);
+            default: throw new IllegalArgumentException("Unknown policy " + name + ", use wander, seek or mixed");
+        }
+    }
+
+    private static void report(List<Result> results, int failed, int threads, long seed, double seconds)
+    {
+        int count = results.size();
+        long totalTicks = 0;
+        long totalNanos = 0;
+        long totalScore = 0;
+        int won = 0;
+        int timedOut = 0;
+        int[] levels = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            Result result = results.get(i);
+            totalTicks += result.ticks;
+            totalNanos += result.nanos;
+            totalScore += result.score;
+            if (result.won) won++;
+            if (!result.gameOver) timedOut++;
+            levels[i] = result.highestLevel;
+        }
+        Arrays.sort(levels);
+
+        System.out.println("Runs:          " + count + " on " + threads + " threads, seed " + seed);
+        System.out.println("Outcome:       " + (count - won - timedOut) + " game over, " + won + " won, "
+            + timedOut + " out of ticks, " + failed + " failed");
+        if (count > 0)
+        {
+            System.out.println("Highest level: " + String.format("min %d, median %d, max %d, mean %.1f",
+                levels[0], levels[count / 2], levels[count - 1], (double) sumOf(levels) / count));
+            System.out.println("Score:         " + String.format("mean %.0f", (double) totalScore / count));
+        }
+        System.out.println("Ticks:         " + totalTicks);
+        System.out.println("Elapsed:       " + String.format("%.3f s", seconds));
+        System.out.println("Ticks/second:  " + String.format("%.0f across all runs, %.0f per run",
+            totalTicks / seconds, totalNanos > 0 ? totalTicks / (totalNanos / 1e9) : 0.0));
+    }
+
+    private static long sumOf(int[] values)
+    {
+        long sum = 0;
+        for (int value : values) sum += value;
+        return sum;
+    }
+
+    private static void save(List<Result> results, String file) throws IOException
+    {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8"))
+        {
+            out.println("run,seed,policy,ticks,highest_level,score,won,game_over,nanos");
+            for (Result result : results)
+            {
+                out.println(result.run + "," + result.seed + "," + result.policy + "," + result.ticks + ","
+                    + result.highestLevel + "," + result.score + "," + result.won + "," + result.gameOver + ","
+                    + result.nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import greenfoot.*;
+
+// Draws every boss bullet into one full-screen image in a single pass, the
+// way EntityLayer draws stars and EcsLayer draws player bullets, but from the
+// batched store. Each bullet uses the frame of a RotatedSprite nearest its
+// heading.
+public class BossBulletLayer extends Actor
+{
+    private static final int ANGLES = 36;
+
+    private final BossBulletStore bullets;
+    private final GreenfootImage canvas;
+    private final RotatedSprite sprite = sprite();
+    private boolean empty = true;
+
+    public BossBulletLayer(BossBulletStore bullets, int width, int height)
+    {
+        this.bullets = bullets;
+        canvas = new GreenfootImage(width, height);
+        setImage(SpriteCache.blank(1, 1));
+    }
+
+    public static RotatedSprite sprite()
+    {
+        return RotatedSprite.of("bossBullet", SpriteCache.painted("bossBullet",
+                BossBulletStore.WIDTH, BossBulletStore.HEIGHT, img -> {
+            img.setColor(new Color(150, 0, 200));
+            img.fillOval(0, 0, BossBulletStore.WIDTH, BossBulletStore.HEIGHT);
+            img.setColor(new Color(100, 0, 150));
+            img.drawOval(0, 0, BossBulletStore.WIDTH - 1, BossBulletStore.HEIGHT - 1);
+        }), ANGLES);
+    }
+
+    public void act()
+    {
+        int count = bullets.getCount();
+        if (count == 0)
+        {
+            if (!empty)
+            {
+                setImage(SpriteCache.blank(1, 1));
+                empty = true;
+            }
+            return;
+        }
+
+        int alpha = ((GameWorld) getWorld()).getInterpolation();
+        canvas.clear();
+        for (int i = 0; i < count; i++)
+        {
+            GreenfootImage frame = sprite.frame(bullets.getRotation(i));
+            canvas.drawImage(frame, bullets.getInterpolatedX(i, alpha) - frame.getWidth() / 2,
+                bullets.getInterpolatedY(i, alpha) - frame.getHeight() / 2);
+        }
+
+        if (empty)
+        {
+            setImage(canvas);
+            empty = false;
+        }
+    }
+}
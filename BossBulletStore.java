@@ -0,0 +1,242 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+// Every live boss bullet, kept as parallel primitive arrays instead of one
+// entity each. A bullet's step per tick is worked out once when it is fired,
+// and update() moves every bullet, tests it against the players and drops the
+// ones that hit or left the screen, all in one pass that packs the survivors
+// to the front. The player test covers the whole step, so even the fastest
+// bullets cannot jump over a player. Holds thousands of bullets without
+// per-bullet objects.
+public class BossBulletStore
+{
+    public static final int WIDTH = 20;
+    public static final int HEIGHT = 8;
+    private static final int MAX_FIXED_X = Motion.toFixed(Simulation.WIDTH - 1);
+    private static final int MAX_FIXED_Y = Motion.toFixed(Simulation.HEIGHT - 1);
+
+    private int count = 0;
+    private int peakCount = 0;
+    private int[] fixedX = new int[64];
+    private int[] fixedY = new int[64];
+    private int[] previousFixedX = new int[64];
+    private int[] previousFixedY = new int[64];
+    private int[] stepX = new int[64];
+    private int[] stepY = new int[64];
+    private int[] x = new int[64];
+    private int[] y = new int[64];
+    private int[] rotation = new int[64];
+    private int[] damage = new int[64];
+    // Numbers each bullet keeps for life, for NetState; not part of the game
+    private int[] id = new int[64];
+    private int nextId = 0;
+
+    // speed is in whole pixels per tick
+    public void fire(int px, int py, int heading, int speed, int bulletDamage)
+    {
+        if (count == x.length)
+        {
+            grow(count * 2);
+        }
+        int fixedSpeed = Motion.toFixed(speed);
+        fixedX[count] = Math.max(0, Math.min(MAX_FIXED_X, Motion.toFixed(px)));
+        fixedY[count] = Math.max(0, Math.min(MAX_FIXED_Y, Motion.toFixed(py)));
+        previousFixedX[count] = fixedX[count];
+        previousFixedY[count] = fixedY[count];
+        x[count] = Motion.toPixels(fixedX[count]);
+        y[count] = Motion.toPixels(fixedY[count]);
+        stepX[count] = Motion.stepX(fixedSpeed, heading);
+        stepY[count] = Motion.stepY(fixedSpeed, heading);
+        rotation[count] = Motion.normalize(heading);
+        damage[count] = bulletDamage;
+        id[count] = nextId++;
+        count++;
+        peakCount = Math.max(peakCount, count);
+    }
+
+    public void clear()
+    {
+        count = 0;
+    }
+
+    // A restored bullet is drawn at rest until its next step
+    public void save(ByteBuffer out)
+    {
+        out.putInt(count);
+        for (int i = 0; i < count; i++)
+        {
+            out.putInt(fixedX[i]);
+            out.putInt(fixedY[i]);
+            out.putInt(stepX[i]);
+            out.putInt(stepY[i]);
+            out.putShort((short) rotation[i]);
+            out.putShort((short) damage[i]);
+        }
+    }
+
+    public void load(ByteBuffer in)
+    {
+        count = in.getInt();
+        if (count > x.length)
+        {
+            grow(count);
+        }
+        for (int i = 0; i < count; i++)
+        {
+            fixedX[i] = in.getInt();
+            fixedY[i] = in.getInt();
+            previousFixedX[i] = fixedX[i];
+            previousFixedY[i] = fixedY[i];
+            x[i] = Motion.toPixels(fixedX[i]);
+            y[i] = Motion.toPixels(fixedY[i]);
+            stepX[i] = in.getInt();
+            stepY[i] = in.getInt();
+            rotation[i] = in.getShort();
+            id[i] = nextId++;
+            damage[i] = in.getShort();
+        }
+        peakCount = Math.max(peakCount, count);
+    }
+
+    public void update(Simulation sim)
+    {
+        List<? extends SimEntity> players = sim.getEntities(SimEntity.PLAYER);
+        int kept = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            // Move, clamped to the world like any other entity
+            int fx = Math.max(0, Math.min(MAX_FIXED_X, fixedX[i] + stepX[i]));
+            int fy = Math.max(0, Math.min(MAX_FIXED_Y, fixedY[i] + stepY[i]));
+            int px = Motion.toPixels(fx);
+            int py = Motion.toPixels(fy);
+
+            // A bullet that hits is used up; all the hits a player takes in one tick cost one life
+            if (hitsPlayer(sim, players, x[i], y[i], px, py))
+            {
+                continue;
+            }
+
+            if (px <= 0 || py <= 0 || px >= Simulation.WIDTH - 1 || py >= Simulation.HEIGHT - 1)
+            {
+                continue;
+            }
+
+            previousFixedX[kept] = fixedX[i];
+            previousFixedY[kept] = fixedY[i];
+            fixedX[kept] = fx;
+            fixedY[kept] = fy;
+            x[kept] = px;
+            y[kept] = py;
+            if (kept != i)
+            {
+                stepX[kept] = stepX[i];
+                stepY[kept] = stepY[i];
+                rotation[kept] = rotation[i];
+                damage[kept] = damage[i];
+                id[kept] = id[i];
+            }
+            kept++;
+        }
+        count = kept;
+    }
+
+    private static boolean hitsPlayer(Simulation sim, List<? extends SimEntity> players,
+                                      int fromX, int fromY, int toX, int toY)
+    {
+        if (sim.isGameOver()) return false;
+
+        for (int p = 0; p < players.size(); p++)
+        {
+            SimPlayer player = (SimPlayer) players.get(p);
+            if (player.isAlive() && !player.isImmune()
+                && Sweep.hits(fromX, fromY, toX, toY, WIDTH, HEIGHT,
+                              player.getX(), player.getY(), player.getWidth(), player.getHeight()))
+            {
+                sim.playerHit(player.getSlot());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Index of a bullet overlapping the entity, or -1
+    public int findOverlap(SimEntity entity)
+    {
+        int ex = entity.getX();
+        int ey = entity.getY();
+        int reachX = WIDTH + entity.getWidth();
+        int reachY = HEIGHT + entity.getHeight();
+        for (int i = 0; i < count; i++)
+        {
+            if (Math.abs(x[i] - ex) * 2 < reachX && Math.abs(y[i] - ey) * 2 < reachY)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void grow(int size)
+    {
+        fixedX = Arrays.copyOf(fixedX, size);
+        fixedY = Arrays.copyOf(fixedY, size);
+        previousFixedX = Arrays.copyOf(previousFixedX, size);
+        previousFixedY = Arrays.copyOf(previousFixedY, size);
+        stepX = Arrays.copyOf(stepX, size);
+        stepY = Arrays.copyOf(stepY, size);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        rotation = Arrays.copyOf(rotation, size);
+        damage = Arrays.copyOf(damage, size);
+        id = Arrays.copyOf(id, size);
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    // Most bullets alive at once since the store was made
+    public int getPeakCount()
+    {
+        return peakCount;
+    }
+
+    public int getX(int index)
+    {
+        return x[index];
+    }
+
+    public int getY(int index)
+    {
+        return y[index];
+    }
+
+    // Where to draw a bullet alpha (0 to Motion.ONE) of the way through its last step
+    public int getInterpolatedX(int index, int alpha)
+    {
+        return Motion.toPixels(previousFixedX[index] + (((fixedX[index] - previousFixedX[index]) * alpha) >> Motion.FIXED_SHIFT));
+    }
+
+    public int getInterpolatedY(int index, int alpha)
+    {
+        return Motion.toPixels(previousFixedY[index] + (((fixedY[index] - previousFixedY[index]) * alpha) >> Motion.FIXED_SHIFT));
+    }
+
+    public int getRotation(int index)
+    {
+        return rotation[index];
+    }
+
+    public int getDamage(int index)
+    {
+        return damage[index];
+    }
+
+    public int getId(int index)
+    {
+        return id[index];
+    }
+}
@@ -0,0 +1,77 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// A boss's cycle between invulnerable and vulnerable: which mode it is in,
+// how long it has been in it and how long each mode lasts. BossPhaseSystem
+// advances it and marks the slots that switched mode this tick, so the boss
+// can open or close its weak points.
+public class BossPhaseStore extends ComponentStore
+{
+    boolean[] vulnerable = new boolean[64];
+    int[] modeTimer = new int[64];
+    int[] invulnerableTicks = new int[64];
+    int[] vulnerableTicks = new int[64];
+    // Set by the last BossPhaseSystem run only, so never saved
+    boolean[] switched = new boolean[64];
+
+    public void add(int id, int invulnerableTicks, int vulnerableTicks)
+    {
+        int slot = insert(id);
+        vulnerable[slot] = false;
+        modeTimer[slot] = 0;
+        this.invulnerableTicks[slot] = invulnerableTicks;
+        this.vulnerableTicks[slot] = vulnerableTicks;
+        switched[slot] = false;
+    }
+
+    public boolean isVulnerable(int slot)
+    {
+        return vulnerable[slot];
+    }
+
+    public boolean hasSwitched(int slot)
+    {
+        return switched[slot];
+    }
+
+    // Until the mode the slot is in runs out
+    public int getTicksLeft(int slot)
+    {
+        return (vulnerable[slot] ? vulnerableTicks[slot] : invulnerableTicks[slot]) - modeTimer[slot];
+    }
+
+    protected void grow(int capacity)
+    {
+        vulnerable = Arrays.copyOf(vulnerable, capacity);
+        modeTimer = Arrays.copyOf(modeTimer, capacity);
+        invulnerableTicks = Arrays.copyOf(invulnerableTicks, capacity);
+        vulnerableTicks = Arrays.copyOf(vulnerableTicks, capacity);
+        switched = Arrays.copyOf(switched, capacity);
+    }
+
+    protected void move(int from, int to)
+    {
+        vulnerable[to] = vulnerable[from];
+        modeTimer[to] = modeTimer[from];
+        invulnerableTicks[to] = invulnerableTicks[from];
+        vulnerableTicks[to] = vulnerableTicks[from];
+        switched[to] = switched[from];
+    }
+
+    protected void saveSlot(ByteBuffer out, int slot)
+    {
+        out.put((byte) (vulnerable[slot] ? 1 : 0));
+        out.putInt(modeTimer[slot]);
+        out.putInt(invulnerableTicks[slot]);
+        out.putInt(vulnerableTicks[slot]);
+    }
+
+    protected void loadSlot(ByteBuffer in, int slot)
+    {
+        vulnerable[slot] = in.get() != 0;
+        modeTimer[slot] = in.getInt();
+        invulnerableTicks[slot] = in.getInt();
+        vulnerableTicks[slot] = in.getInt();
+        switched[slot] = false;
+    }
+}
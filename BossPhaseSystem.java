@@ -0,0 +1,27 @@
+// Counts every boss phase up and flips its mode once the mode has lasted its
+// full length. Runs before the bosses act, so a boss sees the switch on the
+// same tick.
+public final class BossPhaseSystem
+{
+    private BossPhaseSystem()
+    {
+    }
+
+    public static void run(Ecs ecs)
+    {
+        BossPhaseStore phases = ecs.getBossPhases();
+        for (int i = 0; i < phases.size; i++)
+        {
+            phases.switched[i] = false;
+            if (!ecs.isAlive(phases.entities[i])) continue;
+
+            int length = phases.vulnerable[i] ? phases.vulnerableTicks[i] : phases.invulnerableTicks[i];
+            if (++phases.modeTimer[i] >= length)
+            {
+                phases.vulnerable[i] = !phases.vulnerable[i];
+                phases.modeTimer[i] = 0;
+                phases.switched[i] = true;
+            }
+        }
+    }
+}
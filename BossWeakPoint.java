@@ -1,92 +1,63 @@
 import greenfoot.*;
 
-public class BossWeakPoint extends Actor
+public class BossWeakPoint extends EntityView
 {
-    private Boss parentBoss;
-    private int pointId;
-    private int radius;
-    private int angle;
+    private SimWeakPoint weakPoint;
     private boolean vulnerable = false;
-    private boolean destroyed = false;
     
     private GreenfootImage vulnerableImage;
     private GreenfootImage invulnerableImage;
     
-    public BossWeakPoint(Boss parent, int id, int radius, int angle)
+    public BossWeakPoint(SimWeakPoint weakPoint)
     {
-        this.parentBoss = parent;
-        this.pointId = id;
-        this.radius = radius;
-        this.angle = angle;
+        super(weakPoint);
+        this.weakPoint = weakPoint;
         
-        createImages();
+        invulnerableImage = image(false);
+        vulnerableImage = image(true);
         setImage(invulnerableImage);
     }
     
-    private void createImages()
+    // Glowing while it can be shot; also drawn by NetLayer
+    public static GreenfootImage image(boolean vulnerable)
     {
-        invulnerableImage = new GreenfootImage(30, 30);
-        invulnerableImage.setColor(new Color(80, 80, 80));
-        invulnerableImage.fillOval(0, 0, 30, 30);
-        invulnerableImage.setColor(new Color(255, 0, 0, 150));
-        invulnerableImage.fillOval(8, 8, 14, 14);
-        
-        vulnerableImage = new GreenfootImage(30, 30);
-        vulnerableImage.setColor(new Color(255, 200, 0));
-        vulnerableImage.fillOval(0, 0, 30, 30);
-        vulnerableImage.setColor(new Color(255, 100, 0));
-        vulnerableImage.fillOval(8, 8, 14, 14);
-        vulnerableImage.setColor(Color.YELLOW);
-        vulnerableImage.fillOval(12, 12, 6, 6);
-    }
-    
-    public void act()
-    {
-        if (destroyed) return;
-        
-        checkBulletCollision();
-        
-        angle += 1;
-        if (angle >= 360) angle = 0;
-    }
-    
-    public void updatePosition()
-    {
-        if (destroyed || parentBoss == null || parentBoss.getWorld() == null) return;
-        
-        double radians = Math.toRadians(angle);
-        int x = parentBoss.getX() + (int)(radius * Math.cos(radians));
-        int y = parentBoss.getY() + (int)(radius * Math.sin(radians));
+        if (!vulnerable)
+        {
+            return SpriteCache.painted("weakPoint", 30, 30, img -> {
+                img.setColor(new Color(80, 80, 80));
+                img.fillOval(0, 0, 30, 30);
+                img.setColor(new Color(255, 0, 0, 150));
+                img.fillOval(8, 8, 14, 14);
+            });
+        }
         
-        setLocation(x, y);
+        return SpriteCache.painted("weakPointVulnerable", 30, 30, img -> {
+            img.setColor(new Color(255, 200, 0));
+            img.fillOval(0, 0, 30, 30);
+            img.setColor(new Color(255, 100, 0));
+            img.fillOval(8, 8, 14, 14);
+            img.setColor(Color.YELLOW);
+            img.fillOval(12, 12, 6, 6);
+        });
     }
     
-    private void checkBulletCollision()
+    public void setModel(SimEntity model)
     {
-        if (!vulnerable) return;
-        
-        Bullet bullet = (Bullet) getOneIntersectingObject(Bullet.class);
-        if (bullet != null)
-        {
-            getWorld().removeObject(bullet);
-            destroyWeakPoint();
-        }
+        super.setModel(model);
+        weakPoint = (SimWeakPoint) model;
     }
     
-    private void destroyWeakPoint()
+    public void act()
     {
-        destroyed = true;
-        Greenfoot.playSound("hit.mp3");
+        super.act();
         
-        if (parentBoss != null)
+        if (weakPoint.isVulnerable() != vulnerable)
         {
-            parentBoss.weakPointDestroyed();
+            setVulnerable(weakPoint.isVulnerable());
         }
-        
-        getWorld().removeObject(this);
     }
     
-    public void setVulnerable(boolean vulnerable)
+    private void setVulnerable(boolean vulnerable)
     {
         this.vulnerable = vulnerable;
         
@@ -99,9 +70,4 @@ public class BossWeakPoint extends Actor
             setImage(invulnerableImage);
         }
     }
-    
-    public boolean isDestroyed()
-    {
-        return destroyed;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+// One boss attack, described as data: the shape of each volley, how many
+// volleys there are, how far apart, and how the shape turns between volleys.
+// SimBoss runs the patterns from forBoss() in a loop, and every number in
+// them grows with the boss level.
+public class BulletPattern
+{
+    // count bullets evenly around the boss
+    public static final int RING = 0;
+    // count arms around the boss, turned by turn degrees every volley
+    public static final int SPIRAL = 1;
+    // a fan of count bullets, spread degrees wide, at the player
+    public static final int AIMED = 2;
+    // a fan of count bullets, spread degrees wide, swinging turn degrees per volley
+    public static final int WAVE = 3;
+
+    private final int shape;
+    private final int count;
+    private final int spread;
+    private final int turn;
+    private final int volleys;
+    private final int interval;
+    private final int speed;
+
+    public BulletPattern(int shape, int count, int spread, int turn, int volleys, int interval, int speed)
+    {
+        this.shape = shape;
+        this.count = Math.max(1, count);
+        this.spread = spread;
+        this.turn = turn;
+        this.volleys = Math.max(1, volleys);
+        this.interval = Math.max(1, interval);
+        this.speed = speed;
+    }
+
+    // The attack cycle of the boss on bossLevel (5, 10, ... 100), with speed
+    // from its DifficultyTable row
+    public static BulletPattern[] forBoss(int bossLevel, int speed)
+    {
+        int iteration = Math.max(1, bossLevel / 5);
+
+        BulletPattern aimed = new BulletPattern(AIMED, 1 + 2 * ((iteration + 1) / 3), 10 + 4 * iteration, 0,
+            3, 15, speed);
+        BulletPattern ring = new BulletPattern(RING, Math.min(48, 6 + 2 * iteration), 0, 0,
+            1 + iteration / 4, 24, Math.max(1, speed - 1));
+        BulletPattern spiral = new BulletPattern(SPIRAL, 2 + iteration / 5, 0, 13,
+            20 + 4 * iteration, Math.max(2, 8 - iteration / 3), Math.max(1, speed - 2));
+        BulletPattern wave = new BulletPattern(WAVE, 3 + iteration / 2, 40, 20,
+            12 + iteration, 6, speed);
+
+        if (iteration == 1) return new BulletPattern[] { aimed, ring };
+        if (iteration == 2) return new BulletPattern[] { aimed, ring, spiral };
+        return new BulletPattern[] { aimed, spiral, ring, wave };
+    }
+
+    // Fires volley number volley (0 to getVolleys() - 1) from the boss. heading
+    // is where the pattern points: at the player for AIMED, otherwise fixed
+    // when the pattern starts.
+    public void fire(BossBulletStore bullets, SimBoss boss, int heading, int volley, int damage)
+    {
+        int base = heading;
+        if (shape == SPIRAL)
+        {
+            base += volley * turn;
+        }
+        else if (shape == WAVE)
+        {
+            base += (Motion.sin(volley * turn) * (spread / 2)) >> Motion.FIXED_SHIFT;
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            int direction;
+            if (shape == RING || shape == SPIRAL)
+            {
+                direction = base + i * 360 / count;
+            }
+            else
+            {
+                direction = count == 1 ? base : base - spread / 2 + i * spread / (count - 1);
+            }
+            direction = Motion.normalize(direction);
+
+            int x = Motion.toPixels(boss.getFixedX() + 60 * Motion.cos(direction));
+            int y = Motion.toPixels(boss.getFixedY() + 60 * Motion.sin(direction));
+            bullets.fire(x, y, direction, speed, damage);
+        }
+    }
+
+    public int getShape()
+    {
+        return shape;
+    }
+
+    public boolean isAimed()
+    {
+        return shape == AIMED;
+    }
+
+    public int getVolleys()
+    {
+        return volleys;
+    }
+
+    // Ticks from one volley to the next
+    public int getInterval()
+    {
+        return interval;
+    }
+}
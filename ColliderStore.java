@@ -0,0 +1,65 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// An axis-aligned box at sprite size, centred on the entity's position,
+// and the layer that says what the collision systems test it against.
+public class ColliderStore extends ComponentStore
+{
+    // Layers
+    public static final int PLAYER_SHOT = 0;
+
+    int[] width = new int[64];
+    int[] height = new int[64];
+    int[] layer = new int[64];
+
+    public void add(int id, int boxWidth, int boxHeight, int boxLayer)
+    {
+        int slot = insert(id);
+        width[slot] = boxWidth;
+        height[slot] = boxHeight;
+        layer[slot] = boxLayer;
+    }
+
+    public int getWidth(int slot)
+    {
+        return width[slot];
+    }
+
+    public int getHeight(int slot)
+    {
+        return height[slot];
+    }
+
+    public int getLayer(int slot)
+    {
+        return layer[slot];
+    }
+
+    protected void grow(int capacity)
+    {
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        layer = Arrays.copyOf(layer, capacity);
+    }
+
+    protected void move(int from, int to)
+    {
+        width[to] = width[from];
+        height[to] = height[from];
+        layer[to] = layer[from];
+    }
+
+    protected void saveSlot(ByteBuffer out, int slot)
+    {
+        out.putShort((short) width[slot]);
+        out.putShort((short) height[slot]);
+        out.put((byte) layer[slot]);
+    }
+
+    protected void loadSlot(ByteBuffer in, int slot)
+    {
+        width[slot] = in.getShort();
+        height[slot] = in.getShort();
+        layer[slot] = in.get();
+    }
+}
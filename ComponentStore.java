@@ -0,0 +1,119 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Dense storage for one component type. The entities that have it are packed
+// at the front of parallel arrays in the order they got it, so a system walks
+// indices 0 to size() - 1 with no holes and no objects in between; indexOf()
+// maps an entity id to its slot for lookups across stores. Removal happens
+// only in compact(), once a tick, which closes the gaps without reordering.
+// Subclasses hold the data arrays and copy a slot in move().
+public abstract class ComponentStore
+{
+    // Packed slot per entity id, plus one; 0 when the entity lacks the component
+    private int[] slotOf = new int[64];
+    int[] entities = new int[64];
+    int size = 0;
+
+    // Appends the entity and returns its slot; the subclass fills the data in
+    protected final int insert(int id)
+    {
+        if (id >= slotOf.length)
+        {
+            slotOf = Arrays.copyOf(slotOf, Math.max(id + 1, slotOf.length * 2));
+        }
+        if (slotOf[id] != 0)
+        {
+            throw new IllegalStateException("Entity " + id + " already has a " + getClass().getName());
+        }
+        if (size == entities.length)
+        {
+            entities = Arrays.copyOf(entities, size * 2);
+            grow(size * 2);
+        }
+        entities[size] = id;
+        slotOf[id] = size + 1;
+        return size++;
+    }
+
+    public final boolean has(int id)
+    {
+        return id < slotOf.length && slotOf[id] != 0;
+    }
+
+    // Slot of the entity, or -1
+    public final int indexOf(int id)
+    {
+        return id < slotOf.length ? slotOf[id] - 1 : -1;
+    }
+
+    public final int entityAt(int index)
+    {
+        return entities[index];
+    }
+
+    public final int size()
+    {
+        return size;
+    }
+
+    // Drops every entity the Ecs destroyed, keeping the others in order
+    final void compact(Ecs ecs)
+    {
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+        {
+            int id = entities[i];
+            if (ecs.isAlive(id))
+            {
+                if (kept != i)
+                {
+                    move(i, kept);
+                    entities[kept] = id;
+                }
+                slotOf[id] = ++kept;
+            }
+            else
+            {
+                slotOf[id] = 0;
+            }
+        }
+        size = kept;
+    }
+
+    final void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            slotOf[entities[i]] = 0;
+        }
+        size = 0;
+    }
+
+    final void save(ByteBuffer out)
+    {
+        out.putShort((short) size);
+        for (int i = 0; i < size; i++)
+        {
+            out.putShort((short) entities[i]);
+            saveSlot(out, i);
+        }
+    }
+
+    final void load(ByteBuffer in)
+    {
+        clear();
+        for (int i = in.getShort(); i > 0; i--)
+        {
+            int slot = insert(in.getShort());
+            loadSlot(in, slot);
+        }
+    }
+
+    protected abstract void grow(int capacity);
+
+    protected abstract void move(int from, int to);
+
+    protected abstract void saveSlot(ByteBuffer out, int slot);
+
+    protected abstract void loadSlot(ByteBuffer in, int slot);
+}
@@ -0,0 +1,228 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Monte Carlo sweep of the difficulty curve. For every level in the range it
+// plays trials games of SeekPolicy that start on that level with three lives,
+// and reports how many the bot cleared, how long clearing took, and how often
+// it was hit. Every trial is its own Simulation on one work-stealing pool, so
+// a full sweep scales with the cores.
+// Usage: java DifficultyAnalyzer [trials] [fromLevel] [toLevel] [seed]
+// -Dtable=file.csv analyzes that DifficultyTable instead of the standard one
+// (a missing file is written with the standard numbers first, ready to edit),
+// -Dthreads=N sizes the pool, -Dresults=file.csv saves the report, and
+// -DmaxTicks=N gives up on a trial after N ticks of play (default 36000,
+// ten minutes at 60 FPS).
+public class DifficultyAnalyzer
+{
+    private static final double TICKS_PER_SECOND = 60.0;
+
+    private static class Trial
+    {
+        final int level;
+        final boolean cleared;
+        final boolean timedOut;
+        // Ticks of play, not counting the level banner
+        final long ticks;
+        final int hits;
+
+        Trial(int level, boolean cleared, boolean timedOut, long ticks, int hits)
+        {
+            this.level = level;
+            this.cleared = cleared;
+            this.timedOut = timedOut;
+            this.ticks = ticks;
+            this.hits = hits;
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int trials = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int fromLevel = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int toLevel = args.length > 2 ? Integer.parseInt(args[2]) : DifficultyTable.LEVELS;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        long maxTicks = Long.getLong("maxTicks", 36000);
+        int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+        DifficultyTable table = table(System.getProperty("table"));
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<ForkJoinTask<Trial>> jobs = new ArrayList<ForkJoinTask<Trial>>();
+        long start = System.nanoTime();
+
+        // Highest levels first: theirs are the longest games, so the sweep
+        // does not end waiting on a few of them
+        for (int level = toLevel; level >= fromLevel; level--)
+        {
+            SeededRandom seeds = new SeededRandom(seed ^ (level * 0x9E3779B97F4A7C15L));
+            for (int t = 0; t < trials; t++)
+            {
+                final int trialLevel = level;
+                final long trialSeed = seeds.nextLong();
+                jobs.add(pool.submit(() -> play(table, trialLevel, trialSeed, maxTicks)));
+            }
+        }
+
+        List<Trial> results = new ArrayList<Trial>();
+        for (ForkJoinTask<Trial> job : jobs)
+        {
+            try
+            {
+                results.add(job.get());
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the sweep", e);
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException("A trial failed", e.getCause());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        List<String> report = report(results, fromLevel, toLevel);
+        for (String line : report)
+        {
+            System.out.println(line);
+        }
+
+        long totalTicks = 0;
+        for (Trial trial : results)
+        {
+            totalTicks += trial.ticks;
+        }
+        System.out.println(String.format("%d trials on %d threads, seed %d, in %.1f s (%.0f ticks/second)",
+            results.size(), threads, seed, seconds, totalTicks / seconds));
+
+        String resultsFile = System.getProperty("results");
+        if (resultsFile != null)
+        {
+            save(results, fromLevel, toLevel, resultsFile);
+            System.out.println("Results: " + resultsFile);
+        }
+    }
+
+    private static DifficultyTable table(String file) throws IOException
+    {
+        if (file == null) return DifficultyTable.STANDARD;
+
+        File tableFile = new File(file);
+        if (!tableFile.exists())
+        {
+            DifficultyTable.STANDARD.save(tableFile);
+            System.out.println("Wrote the standard table to " + file);
+        }
+        return DifficultyTable.load(tableFile);
+    }
+
+    private static Trial play(DifficultyTable table, int level, long seed, long maxTicks)
+    {
+        Simulation sim = new Simulation(null, seed);
+        sim.setDifficulty(table);
+        sim.startLevel(level);
+        InputPolicy bot = new SeekPolicy(~seed);
+
+        long ticks = 0;
+        int hits = 0;
+        int lives = sim.getLives();
+        while (ticks < maxTicks)
+        {
+            boolean playing = !sim.isStartingLevel();
+            sim.tick(bot.nextInput(sim));
+            if (playing) ticks++;
+
+            hits += Math.max(0, lives - sim.getLives());
+            lives = sim.getLives();
+
+            if (sim.isLevelComplete()) return new Trial(level, true, false, ticks, hits);
+            if (sim.isGameOver()) return new Trial(level, false, false, ticks, hits);
+        }
+        return new Trial(level, false, true, ticks, hits);
+    }
+
+    // One line per level: clear rate, time to clear, and hits taken
+    private static List<String> report(List<Trial> results, int fromLevel, int toLevel)
+    {
+        List<String> lines = new ArrayList<String>();
+        lines.add(String.format("%5s %7s %7s %8s %8s %8s %9s %9s",
+            "Level", "Trials", "Clear", "Timeout", "p10 s", "p50 s", "p90 s", "Hits/min"));
+        for (int level = fromLevel; level <= toLevel; level++)
+        {
+            double[] row = summarize(results, level);
+            lines.add(String.format("%5d %7d %6.1f%% %7.1f%% %8s %8s %9s %9.2f",
+                level, (int) row[0], row[1], row[2], seconds(row[3]), seconds(row[4]), seconds(row[5]), row[6]));
+        }
+        return lines;
+    }
+
+    // trials, clear %, timeout %, p10/p50/p90 seconds to clear (NaN if none
+    // cleared), hits per minute of play
+    private static double[] summarize(List<Trial> results, int level)
+    {
+        int trials = 0;
+        int cleared = 0;
+        int timedOut = 0;
+        long ticks = 0;
+        long hits = 0;
+        long[] clearTicks = new long[results.size()];
+        for (Trial trial : results)
+        {
+            if (trial.level != level) continue;
+
+            trials++;
+            ticks += trial.ticks;
+            hits += trial.hits;
+            if (trial.timedOut) timedOut++;
+            if (trial.cleared) clearTicks[cleared++] = trial.ticks;
+        }
+        Arrays.sort(clearTicks, 0, cleared);
+
+        double minutes = ticks / TICKS_PER_SECOND / 60;
+        return new double[] {
+            trials,
+            trials > 0 ? 100.0 * cleared / trials : 0,
+            trials > 0 ? 100.0 * timedOut / trials : 0,
+            percentile(clearTicks, cleared, 10) / TICKS_PER_SECOND,
+            percentile(clearTicks, cleared, 50) / TICKS_PER_SECOND,
+            percentile(clearTicks, cleared, 90) / TICKS_PER_SECOND,
+            minutes > 0 ? hits / minutes : 0
+        };
+    }
+
+    // Nearest rank over the first count sorted values
+    private static double percentile(long[] sorted, int count, double p)
+    {
+        if (count == 0) return Double.NaN;
+        int rank = (int) Math.ceil(p / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    private static String seconds(double value)
+    {
+        return Double.isNaN(value) ? "-" : String.format("%.1f", value);
+    }
+
+    private static void save(List<Trial> results, int fromLevel, int toLevel, String file) throws IOException
+    {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8"))
+        {
+            out.println("level,trials,clear_percent,timeout_percent,p10_seconds,p50_seconds,p90_seconds,hits_per_minute");
+            for (int level = fromLevel; level <= toLevel; level++)
+            {
+                double[] row = summarize(results, level);
+                out.println(level + "," + (int) row[0] + "," + row[1] + "," + row[2] + ","
+                    + (Double.isNaN(row[3]) ? "" : row[3]) + "," + (Double.isNaN(row[4]) ? "" : row[4]) + ","
+                    + (Double.isNaN(row[5]) ? "" : row[5]) + "," + row[6]);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// How hard every level is, one row per level from 1 to LEVELS: the stars
+// and enemies LevelGenerator lays out, and the boss stats SimBoss and
+// BulletPattern scale with. STANDARD holds the game's own numbers; a table
+// saved as CSV can be edited and loaded back for tuning, e.g. by
+// DifficultyAnalyzer. Tables never change once built, so one can be shared
+// by any number of games on any threads. Replays assume STANDARD.
+public class DifficultyTable
+{
+    public static final int LEVELS = 100;
+
+    private static final String HEADER = "level,stars,enemies,boss_move_speed,boss_shoot_delay,"
+        + "boss_bullet_speed,boss_invulnerable_ticks,boss_vulnerable_ticks";
+
+    public static final DifficultyTable STANDARD = standard();
+
+    // Four times the player's 4 pixels a tick; STANDARD tops out at 7
+    private static final double MAX_BOSS_MOVE_SPEED = 16;
+
+    // Indexed by level; 0 is unused
+    private final int[] stars = new int[LEVELS + 1];
+    private final int[] enemies = new int[LEVELS + 1];
+    private final double[] bossMoveSpeed = new double[LEVELS + 1];
+    private final int[] bossShootDelay = new int[LEVELS + 1];
+    private final int[] bossBulletSpeed = new int[LEVELS + 1];
+    private final int[] bossInvulnerableTicks = new int[LEVELS + 1];
+    private final int[] bossVulnerableTicks = new int[LEVELS + 1];
+
+    private DifficultyTable()
+    {
+    }
+
+    private static DifficultyTable standard()
+    {
+        DifficultyTable table = new DifficultyTable();
+        for (int level = 1; level <= LEVELS; level++)
+        {
+            boolean bossLevel = level % 5 == 0;
+            int bossIteration = level / 5;
+
+            // Boss levels have no enemies and fewer stars
+            table.stars[level] = bossLevel ? 2 + level / 10 : 3 + level;
+            table.enemies[level] = bossLevel ? 0 : level;
+
+            table.bossMoveSpeed[level] = 1.0 + bossIteration * 0.3;
+            table.bossShootDelay[level] = Math.max(30, 90 - bossIteration * 5);
+            table.bossBulletSpeed[level] = 5 + Math.max(1, bossIteration);
+            table.bossInvulnerableTicks[level] = 900;  // 15 seconds at 60 FPS
+            table.bossVulnerableTicks[level] = 1200;   // 20 seconds at 60 FPS
+        }
+        return table;
+    }
+
+    // Every level has to be in the file
+    public static DifficultyTable load(File file) throws IOException
+    {
+        DifficultyTable table = new DifficultyTable();
+        boolean[] seen = new boolean[LEVELS + 1];
+        try (BufferedReader in = new BufferedReader(
+                 new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))
+        {
+            String line = in.readLine();
+            if (line == null || !line.trim().equals(HEADER))
+            {
+                throw new IOException(file + " does not start with " + HEADER);
+            }
+
+            int lineNumber = 1;
+            while ((line = in.readLine()) != null)
+            {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+
+                String[] fields = line.split(",");
+                try
+                {
+                    int level = Integer.parseInt(fields[0].trim());
+                    if (level < 1 || level > LEVELS)
+                    {
+                        throw new IOException(file + ":" + lineNumber + ": no level " + level);
+                    }
+                    table.stars[level] = Integer.parseInt(fields[1].trim());
+                    table.enemies[level] = Integer.parseInt(fields[2].trim());
+                    table.bossMoveSpeed[level] = Double.parseDouble(fields[3].trim());
+                    table.bossShootDelay[level] = Integer.parseInt(fields[4].trim());
+                    table.bossBulletSpeed[level] = Integer.parseInt(fields[5].trim());
+                    table.bossInvulnerableTicks[level] = Integer.parseInt(fields[6].trim());
+                    table.bossVulnerableTicks[level] = Integer.parseInt(fields[7].trim());
+                    String problem = table.check(level);
+                    if (problem != null)
+                    {
+                        throw new IOException(file + ":" + lineNumber + ": " + problem);
+                    }
+                    seen[level] = true;
+                }
+                catch (NumberFormatException | ArrayIndexOutOfBoundsException e)
+                {
+                    throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        for (int level = 1; level <= LEVELS; level++)
+        {
+            if (!seen[level])
+            {
+                throw new IOException(file + " has no row for level " + level);
+            }
+        }
+        return table;
+    }
+
+    // What makes the row for level unplayable, or null. Slower boss bullets
+    // than 3 would leave the slower patterns standing still on screen.
+    private String check(int level)
+    {
+        // Also false for NaN
+        if (!(bossMoveSpeed[level] >= 0 && bossMoveSpeed[level] <= MAX_BOSS_MOVE_SPEED))
+        {
+            return "boss move speed " + bossMoveSpeed[level] + " not within 0 to " + MAX_BOSS_MOVE_SPEED;
+        }
+        if (stars[level] < 0) return "negative star count " + stars[level];
+        if (enemies[level] < 0) return "negative enemy count " + enemies[level];
+        if (bossShootDelay[level] < 1) return "boss shoot delay below 1";
+        if (bossBulletSpeed[level] < 3) return "boss bullet speed below 3";
+        if (bossInvulnerableTicks[level] < 1) return "boss invulnerable ticks below 1";
+        if (bossVulnerableTicks[level] < 1) return "boss vulnerable ticks below 1";
+        return null;
+    }
+
+    public void save(File file) throws IOException
+    {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8"))
+        {
+            out.println(HEADER);
+            for (int level = 1; level <= LEVELS; level++)
+            {
+                out.println(level + "," + stars[level] + "," + enemies[level] + ","
+                    + String.format(Locale.ROOT, "%.2f", bossMoveSpeed[level]) + "," + bossShootDelay[level] + ","
+                    + bossBulletSpeed[level] + "," + bossInvulnerableTicks[level] + "," + bossVulnerableTicks[level]);
+            }
+        }
+    }
+
+    // Levels past the end use the last row
+    private static int row(int level)
+    {
+        return Math.max(1, Math.min(LEVELS, level));
+    }
+
+    public int getStars(int level)
+    {
+        return stars[row(level)];
+    }
+
+    // Normal levels only; swarm mode sets its own count
+    public int getEnemies(int level)
+    {
+        return enemies[row(level)];
+    }
+
+    // Pixels per tick
+    public double getBossMoveSpeed(int level)
+    {
+        return bossMoveSpeed[row(level)];
+    }
+
+    // Ticks of rest between two attack patterns
+    public int getBossShootDelay(int level)
+    {
+        return bossShootDelay[row(level)];
+    }
+
+    // Pixels per tick of the fastest patterns; the others are a little slower
+    public int getBossBulletSpeed(int level)
+    {
+        return bossBulletSpeed[row(level)];
+    }
+
+    public int getBossInvulnerableTicks(int level)
+    {
+        return bossInvulnerableTicks[row(level)];
+    }
+
+    public int getBossVulnerableTicks(int level)
+    {
+        return bossVulnerableTicks[row(level)];
+    }
+}
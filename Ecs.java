@@ -0,0 +1,186 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Entity-component-system core. An entity is only an id; its data sits in
+// one ComponentStore per component type, and the systems (MovementSystem,
+// ProjectileSystem, LifetimeSystem, BossPhaseSystem) each walk the packed
+// stores they need in order. A new kind of entity is a new combination of components rather than
+// a new SimEntity subclass and Actor. destroy() takes effect at once for
+// isAlive(), but the stores only drop the entity in flush(), which Simulation
+// calls when the tick ends, so systems can destroy while they iterate.
+public class Ecs
+{
+    private final PositionStore positions = new PositionStore();
+    private final VelocityStore velocities = new VelocityStore();
+    private final ColliderStore colliders = new ColliderStore();
+    private final SpriteStore sprites = new SpriteStore();
+    private final LifetimeStore lifetimes = new LifetimeStore();
+    private final BossPhaseStore bossPhases = new BossPhaseStore();
+    // Snapshot order
+    private final ComponentStore[] stores = { positions, velocities, colliders, sprites, lifetimes, bossPhases };
+
+    private boolean[] alive = new boolean[64];
+    private int nextId = 0;
+    private int[] freeIds = new int[64];
+    private int freeCount = 0;
+    // Destroyed since the last flush(); their ids are reused after it
+    private int[] destroyed = new int[64];
+    private int destroyedCount = 0;
+    private int liveCount = 0;
+    private int peakCount = 0;
+
+    public int create()
+    {
+        int id;
+        if (freeCount > 0)
+        {
+            id = freeIds[--freeCount];
+        }
+        else
+        {
+            id = nextId++;
+            if (id == alive.length)
+            {
+                alive = Arrays.copyOf(alive, id * 2);
+            }
+        }
+        alive[id] = true;
+        liveCount++;
+        peakCount = Math.max(peakCount, liveCount);
+        return id;
+    }
+
+    public void destroy(int id)
+    {
+        if (!isAlive(id)) return;
+
+        alive[id] = false;
+        liveCount--;
+        if (destroyedCount == destroyed.length)
+        {
+            destroyed = Arrays.copyOf(destroyed, destroyedCount * 2);
+        }
+        destroyed[destroyedCount++] = id;
+    }
+
+    public boolean isAlive(int id)
+    {
+        return id >= 0 && id < nextId && alive[id];
+    }
+
+    public void flush()
+    {
+        if (destroyedCount == 0) return;
+
+        for (ComponentStore store : stores)
+        {
+            store.compact(this);
+        }
+        for (int i = 0; i < destroyedCount; i++)
+        {
+            free(destroyed[i]);
+        }
+        destroyedCount = 0;
+    }
+
+    private void free(int id)
+    {
+        if (freeCount == freeIds.length)
+        {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    public void clear()
+    {
+        for (ComponentStore store : stores)
+        {
+            store.clear();
+        }
+        Arrays.fill(alive, 0, nextId, false);
+        nextId = 0;
+        freeCount = 0;
+        destroyedCount = 0;
+        liveCount = 0;
+    }
+
+    // Taken between ticks, after flush(), so every stored entity is alive.
+    // Ids are not part of the game, only how the stores refer to an entity,
+    // so the free list is simply rebuilt on load
+    void save(ByteBuffer out)
+    {
+        for (ComponentStore store : stores)
+        {
+            store.save(out);
+        }
+    }
+
+    void load(ByteBuffer in)
+    {
+        clear();
+        for (ComponentStore store : stores)
+        {
+            store.load(in);
+            for (int i = 0; i < store.size; i++)
+            {
+                int id = store.entities[i];
+                nextId = Math.max(nextId, id + 1);
+                if (nextId > alive.length)
+                {
+                    alive = Arrays.copyOf(alive, Math.max(nextId, alive.length * 2));
+                }
+                if (!alive[id])
+                {
+                    alive[id] = true;
+                    liveCount++;
+                }
+            }
+        }
+        for (int id = nextId - 1; id >= 0; id--)
+        {
+            if (!alive[id]) free(id);
+        }
+        peakCount = Math.max(peakCount, liveCount);
+    }
+
+    public PositionStore getPositions()
+    {
+        return positions;
+    }
+
+    public VelocityStore getVelocities()
+    {
+        return velocities;
+    }
+
+    public ColliderStore getColliders()
+    {
+        return colliders;
+    }
+
+    public SpriteStore getSprites()
+    {
+        return sprites;
+    }
+
+    public LifetimeStore getLifetimes()
+    {
+        return lifetimes;
+    }
+
+    public BossPhaseStore getBossPhases()
+    {
+        return bossPhases;
+    }
+
+    public int size()
+    {
+        return liveCount;
+    }
+
+    public int getPeakCount()
+    {
+        return peakCount;
+    }
+}
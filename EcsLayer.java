@@ -0,0 +1,74 @@
+import greenfoot.*;
+
+// Greenfoot side of the Ecs: draws every entity with a position and a sprite
+// into one full-screen image, the way EntityLayer draws a kind of SimEntity.
+// The SpriteStore id picks a RotatedSprite from the table, so an entity type
+// added to the Ecs only needs its sprite registered in sprites().
+public class EcsLayer extends Actor
+{
+    private final Ecs ecs;
+    private final RotatedSprite[] sprites;
+    private final GreenfootImage canvas;
+    private boolean empty = true;
+
+    public EcsLayer(Ecs ecs, RotatedSprite[] sprites, int width, int height)
+    {
+        this.ecs = ecs;
+        this.sprites = sprites;
+        canvas = new GreenfootImage(width, height);
+        setImage(SpriteCache.blank(1, 1));
+    }
+
+    // Indexed by SpriteStore id
+    public static RotatedSprite[] sprites()
+    {
+        RotatedSprite[] sprites = new RotatedSprite[SpriteStore.SPRITES];
+        sprites[SpriteStore.BULLET] = bulletSprite();
+        return sprites;
+    }
+
+    // Red oval player bullet; bullets only fly in the 8 movement directions
+    public static RotatedSprite bulletSprite()
+    {
+        return RotatedSprite.of("bullet", SpriteCache.painted("bullet", 16, 6, img -> {
+            img.setColor(Color.RED);
+            img.fillOval(0, 0, 16, 6);
+        }), 72);
+    }
+
+    public void act()
+    {
+        SpriteStore store = ecs.getSprites();
+        PositionStore positions = ecs.getPositions();
+        int count = store.size();
+        if (count == 0)
+        {
+            if (!empty)
+            {
+                setImage(SpriteCache.blank(1, 1));
+                empty = true;
+            }
+            return;
+        }
+
+        int alpha = ((GameWorld) getWorld()).getInterpolation();
+        canvas.clear();
+        for (int i = 0; i < count; i++)
+        {
+            int id = store.entityAt(i);
+            int p = positions.indexOf(id);
+            if (p >= 0 && ecs.isAlive(id))
+            {
+                GreenfootImage frame = sprites[store.getSprite(i)].frame(store.getRotation(i));
+                canvas.drawImage(frame, positions.getInterpolatedX(p, alpha) - frame.getWidth() / 2,
+                    positions.getInterpolatedY(p, alpha) - frame.getHeight() / 2);
+            }
+        }
+
+        if (empty)
+        {
+            setImage(canvas);
+            empty = false;
+        }
+    }
+}
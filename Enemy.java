@@ -1,61 +1,17 @@
 import greenfoot.*;
 
-public class Enemy extends Actor
+public class Enemy extends EntityView
 {
-    private int speed = 2;
-    private int direction = 0;
-    private int changeDirectionTimer = 0;
-    
-    public Enemy()
-    {
-        setImage("enemy.png");
-        GreenfootImage img = new GreenfootImage("enemy.png");
-        img.scale(80, 80);
-        setImage(img);
-  
-        direction = Greenfoot.getRandomNumber(360);
-    }
-    
-    public void act()
-    {
-        move();
-        checkBoundaries();
-        checkBulletCollision();
-        
-        changeDirectionTimer++;
-        if (changeDirectionTimer > 60)
-        {
-            direction = Greenfoot.getRandomNumber(360);
-            changeDirectionTimer = 0;
-        }
-    }
-    
-    private void move()
-    {
-        setRotation(direction);
-        move(speed);
-    }
-    
-    private void checkBoundaries()
+    private static final int ROTATION_STEPS = 72;
+
+    public Enemy(SimEnemy enemy)
     {
-        int x = getX();
-        int y = getY();
-        
-        if (x <= 15 || x >= getWorld().getWidth() - 15 || 
-            y <= 15 || y >= getWorld().getHeight() - 50)
-        {
-            direction = direction + 180;
-            if (direction >= 360) direction -= 360;
-        }
+        super(enemy);
+        setRotatedSprite(sprite());
     }
-    
-    private void checkBulletCollision()
+
+    public static RotatedSprite sprite()
     {
-        Bullet bullet = (Bullet) getOneIntersectingObject(Bullet.class);
-        if (bullet != null)
-        {
-            getWorld().removeObject(bullet);
-            getWorld().removeObject(this);
-        }
+        return RotatedSprite.of("enemy", SpriteCache.get("enemy.png", 80, 80), ROTATION_STEPS);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,307 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Enemies for swarm mode, kept as parallel primitive arrays instead of one
+// SimEnemy object each. update() runs the same rules as SimEnemy.act() (move 2
+// px along the heading, turn around at the borders, pick a new heading every
+// 60 ticks) over the whole swarm in one loop, then rebuilds a grid index
+// that answers overlap queries from the player and, through
+// ProjectileSystem, from bullets. Scales to tens of thousands of enemies per
+// level; with an update pool on the Simulation the movement runs in
+// parallel, and the new random headings are drawn afterwards in index order
+// so the game stays the same.
+public class EnemySwarm
+{
+    public static final int SIZE = 80;
+    private static final int SPEED = Motion.toFixed(2);
+    private static final int CELL_SIZE = 80;
+    private static final int MAX_FIXED_X = Motion.toFixed(Simulation.WIDTH - 1);
+    private static final int MAX_FIXED_Y = Motion.toFixed(Simulation.HEIGHT - 1);
+
+    private int count = 0;
+    private int[] fixedX = new int[64];
+    private int[] fixedY = new int[64];
+    private int[] x = new int[64];
+    private int[] y = new int[64];
+    private int[] direction = new int[64];
+    private int[] timer = new int[64];
+    private boolean[] removed = new boolean[64];
+    private boolean[] reroll = new boolean[64];
+    private int removedCount = 0;
+
+    // Grid index over the current positions: head per cell, next per enemy
+    private final int columns;
+    private final int rows;
+    private final int[] cellHead;
+    private int[] nextInCell = new int[64];
+    private boolean gridDirty = false;
+
+    private final ParallelRange.Body moveRange = this::moveRange;
+
+    public EnemySwarm(int width, int height)
+    {
+        columns = (width + CELL_SIZE - 1) / CELL_SIZE;
+        rows = (height + CELL_SIZE - 1) / CELL_SIZE;
+        cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, -1);
+    }
+
+    public void add(int px, int py, int heading)
+    {
+        if (count == x.length)
+        {
+            grow(count * 2);
+        }
+        fixedX[count] = Motion.toFixed(px);
+        fixedY[count] = Motion.toFixed(py);
+        x[count] = px;
+        y[count] = py;
+        direction[count] = heading;
+        timer[count] = 0;
+        removed[count] = false;
+        reroll[count] = false;
+        count++;
+        gridDirty = true;
+    }
+
+    public void clear()
+    {
+        count = 0;
+        removedCount = 0;
+        gridDirty = true;
+    }
+
+    // Snapshots keep every slot, killed ones too, so slot indices survive a restore
+    public void save(ByteBuffer out)
+    {
+        out.putInt(count);
+        for (int i = 0; i < count; i++)
+        {
+            out.putInt(fixedX[i]);
+            out.putInt(fixedY[i]);
+            out.putShort((short) direction[i]);
+            out.put((byte) timer[i]);
+            out.put((byte) (removed[i] ? 1 : 0));
+        }
+    }
+
+    public void load(ByteBuffer in)
+    {
+        clear();
+        int slots = in.getInt();
+        if (slots > x.length)
+        {
+            grow(slots);
+        }
+        for (int i = 0; i < slots; i++)
+        {
+            fixedX[i] = in.getInt();
+            fixedY[i] = in.getInt();
+            x[i] = Motion.toPixels(fixedX[i]);
+            y[i] = Motion.toPixels(fixedY[i]);
+            direction[i] = in.getShort();
+            timer[i] = in.get();
+            removed[i] = in.get() != 0;
+            reroll[i] = false;
+            if (removed[i]) removedCount++;
+        }
+        count = slots;
+    }
+
+    public void update(Simulation sim)
+    {
+        compact();
+
+        ParallelRange.run(sim.getUpdatePool(), count, moveRange);
+
+        // Headings due for a change, in the order one loop would have drawn them
+        for (int i = 0; i < count; i++)
+        {
+            if (reroll[i])
+            {
+                reroll[i] = false;
+                direction[i] = sim.random(360);
+            }
+        }
+
+        // Bullets are tested against the grid afterwards, by ProjectileSystem
+        rebuildGrid();
+    }
+
+    // Each enemy only touches its own slots here, so ranges can run on any thread
+    private void moveRange(int from, int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            int heading = direction[i];
+
+            // Move, clamped to the world like any other entity
+            int fx = Math.max(0, Math.min(MAX_FIXED_X, fixedX[i] + Motion.stepX(SPEED, heading)));
+            int fy = Math.max(0, Math.min(MAX_FIXED_Y, fixedY[i] + Motion.stepY(SPEED, heading)));
+            fixedX[i] = fx;
+            fixedY[i] = fy;
+            int px = Motion.toPixels(fx);
+            int py = Motion.toPixels(fy);
+            x[i] = px;
+            y[i] = py;
+
+            // Turn around at the borders
+            if (px <= 15 || px >= Simulation.WIDTH - 15 ||
+                py <= 15 || py >= Simulation.HEIGHT - 50)
+            {
+                heading += 180;
+                if (heading >= 360) heading -= 360;
+            }
+
+            if (++timer[i] > 60)
+            {
+                reroll[i] = true;
+                timer[i] = 0;
+            }
+            direction[i] = heading;
+        }
+    }
+
+    // Index of a live enemy overlapping the entity, or -1
+    public int findOverlap(SimEntity entity)
+    {
+        return findOverlapAlong(entity, entity.getX(), entity.getY());
+    }
+
+    // Same, for an entity that moved in a line from (fromX, fromY) this tick
+    public int findOverlapAlong(SimEntity entity, int fromX, int fromY)
+    {
+        return findOverlapAlong(fromX, fromY, entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight());
+    }
+
+    // Same, for a width x height box moving from (fromX, fromY) to (ex, ey)
+    public int findOverlapAlong(int fromX, int fromY, int ex, int ey, int width, int height)
+    {
+        if (gridDirty) rebuildGrid();
+
+        int reachX = (width + SIZE + 1) / 2;
+        int reachY = (height + SIZE + 1) / 2;
+        int firstColumn = column(Math.min(fromX, ex) - reachX);
+        int lastColumn = column(Math.max(fromX, ex) + reachX);
+        int firstRow = row(Math.min(fromY, ey) - reachY);
+        int lastRow = row(Math.max(fromY, ey) + reachY);
+
+        for (int r = firstRow; r <= lastRow; r++)
+        {
+            for (int c = firstColumn; c <= lastColumn; c++)
+            {
+                for (int i = cellHead[r * columns + c]; i >= 0; i = nextInCell[i])
+                {
+                    if (!removed[i] && Sweep.hits(fromX, fromY, ex, ey, width, height, x[i], y[i], SIZE, SIZE))
+                    {
+                        return i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    public void kill(int index)
+    {
+        if (!removed[index])
+        {
+            removed[index] = true;
+            removedCount++;
+        }
+    }
+
+    // Slots stay stable during a tick; killed enemies are dropped at the next update
+    private void compact()
+    {
+        if (removedCount == 0) return;
+
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (!removed[i])
+            {
+                if (kept != i)
+                {
+                    fixedX[kept] = fixedX[i];
+                    fixedY[kept] = fixedY[i];
+                    x[kept] = x[i];
+                    y[kept] = y[i];
+                    direction[kept] = direction[i];
+                    timer[kept] = timer[i];
+                    removed[kept] = false;
+                }
+                kept++;
+            }
+        }
+        count = kept;
+        removedCount = 0;
+        gridDirty = true;
+    }
+
+    private void rebuildGrid()
+    {
+        gridDirty = false;
+        Arrays.fill(cellHead, -1);
+        for (int i = count - 1; i >= 0; i--)
+        {
+            int cell = row(y[i]) * columns + column(x[i]);
+            nextInCell[i] = cellHead[cell];
+            cellHead[cell] = i;
+        }
+    }
+
+    private void grow(int size)
+    {
+        fixedX = Arrays.copyOf(fixedX, size);
+        fixedY = Arrays.copyOf(fixedY, size);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        direction = Arrays.copyOf(direction, size);
+        timer = Arrays.copyOf(timer, size);
+        removed = Arrays.copyOf(removed, size);
+        reroll = Arrays.copyOf(reroll, size);
+        nextInCell = Arrays.copyOf(nextInCell, size);
+    }
+
+    private int column(int px)
+    {
+        return Math.max(0, Math.min(columns - 1, px / CELL_SIZE));
+    }
+
+    private int row(int py)
+    {
+        return Math.max(0, Math.min(rows - 1, py / CELL_SIZE));
+    }
+
+    // Slots include enemies killed this tick; check isRemoved()
+    public int getSlotCount()
+    {
+        return count;
+    }
+
+    public int getLiveCount()
+    {
+        return count - removedCount;
+    }
+
+    public boolean isRemoved(int index)
+    {
+        return removed[index];
+    }
+
+    public int getX(int index)
+    {
+        return x[index];
+    }
+
+    public int getY(int index)
+    {
+        return y[index];
+    }
+
+    public int getDirection(int index)
+    {
+        return direction[index];
+    }
+}
@@ -0,0 +1,67 @@
+import greenfoot.*;
+import java.util.List;
+
+// Draws every entity of one kind into one full-screen image in a single
+// pass, the way SwarmLayer draws the swarm, instead of one actor each. The
+// entities stay plain SimEntity records in the Simulation; the layer reads
+// their list every frame and picks each one's frame from a RotatedSprite,
+// so a turned entity costs no image transform either.
+public class EntityLayer extends Actor
+{
+    private final List<? extends SimEntity> entities;
+    private final RotatedSprite sprite;
+    private final GreenfootImage canvas;
+    private boolean empty = true;
+
+    public EntityLayer(List<? extends SimEntity> entities, RotatedSprite sprite, int width, int height)
+    {
+        this.entities = entities;
+        this.sprite = sprite;
+        canvas = new GreenfootImage(width, height);
+        setImage(SpriteCache.blank(1, 1));
+    }
+
+    // Yellow star with an orange centre; stars turn 2 degrees a tick, so one frame per step
+    public static RotatedSprite starSprite()
+    {
+        return RotatedSprite.of("star", SpriteCache.painted("star", 20, 20, img -> {
+            img.setColor(Color.YELLOW);
+            img.fillOval(0, 0, 20, 20);
+            img.setColor(Color.ORANGE);
+            img.fillOval(8, 8, 4, 4);
+        }), 180);
+    }
+
+    public void act()
+    {
+        int count = entities.size();
+        if (count == 0)
+        {
+            if (!empty)
+            {
+                setImage(SpriteCache.blank(1, 1));
+                empty = true;
+            }
+            return;
+        }
+
+        int alpha = ((GameWorld) getWorld()).getInterpolation();
+        canvas.clear();
+        for (int i = 0; i < count; i++)
+        {
+            SimEntity entity = entities.get(i);
+            if (entity.isAlive())
+            {
+                GreenfootImage frame = sprite.frame(entity.getRotation());
+                canvas.drawImage(frame, entity.getInterpolatedX(alpha) - frame.getWidth() / 2,
+                    entity.getInterpolatedY(alpha) - frame.getHeight() / 2);
+            }
+        }
+
+        if (empty)
+        {
+            setImage(canvas);
+            empty = false;
+        }
+    }
+}
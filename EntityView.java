@@ -0,0 +1,60 @@
+import greenfoot.*;
+
+// Base for the actors that draw a SimEntity: each act() copies the
+// entity's position, interpolated between ticks, and its rotation; subclasses
+// add their own image changes. Views with a RotatedSprite show its frame for
+// the rotation instead of turning the actor.
+public abstract class EntityView extends Actor
+{
+    private SimEntity model;
+    private RotatedSprite sprite = null;
+
+    protected EntityView(SimEntity model)
+    {
+        this.model = model;
+        showRotation();
+    }
+
+    public void act()
+    {
+        int alpha = getWorld() instanceof GameWorld ? ((GameWorld) getWorld()).getInterpolation() : Motion.ONE;
+        setLocation(model.getInterpolatedX(alpha), model.getInterpolatedY(alpha));
+        showRotation();
+    }
+
+    protected void setRotatedSprite(RotatedSprite sprite)
+    {
+        this.sprite = sprite;
+        setRotation(0);
+        showRotation();
+    }
+
+    private void showRotation()
+    {
+        if (sprite == null)
+        {
+            setRotation(model.getRotation());
+            return;
+        }
+
+        GreenfootImage frame = sprite.frame(model.getRotation());
+        if (frame != getImage())
+        {
+            setImage(frame);
+        }
+    }
+
+    // Draws another entity of the same kind from now on, e.g. the one a
+    // snapshot restore put in place of the old model
+    public void setModel(SimEntity model)
+    {
+        this.model = model;
+        setLocation(model.getX(), model.getY());
+        showRotation();
+    }
+
+    public SimEntity getModel()
+    {
+        return model;
+    }
+}
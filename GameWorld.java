@@ -1,111 +1,330 @@
 import greenfoot.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
 
-public class GameWorld extends World
+public class GameWorld extends World implements SimListener
 {
-    private int level = 1;
-    private int lives = 3;
-    private int score = 0;
-    private int starsLeft = 0;
-    private boolean gameOver = false;
-    private boolean levelComplete = false;
-    private int levelChangeTimer = 0;
+    // ✅ All game rules live in the Simulation, this world only draws it and plays sounds
+    private Simulation sim;
+
+    // ✅ The simulation runs at a steady 60 ticks a second whatever the frame
+    // rate; a slow frame runs several ticks (up to MAX_TICKS_PER_FRAME) and a
+    // fast one none, and the views draw between the last two ticks
+    public static final long TICK_NANOS = 1000000000L / 60;
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    private long lastFrameTime = 0;
+    private long unsimulated = 0;
+    private int interpolation = Motion.ONE;
+
+    // ✅ Every game is seeded and its input recorded, so it can be replayed exactly
+    private Replay replay;
+    private boolean playingBack;
+
+    // ✅ When the title screen started the game, to report how long the switch took
+    private long launchTime = 0;
+
+    // ✅ Holding backspace rewinds up to REWIND_TICKS, "k" quick-saves and "l" loads it
+    private static final int REWIND_TICKS = 300;
+    // ✅ Slots start small and double whenever a snapshot does not fit (a big
+    // boss fight); past the largest, rewinding is turned off
+    private static final int SNAPSHOT_SLOT_SIZE = 16 * 1024;
+    private static final int MAX_SNAPSHOT_SLOT_SIZE = 128 * 1024;
+    private static final String QUICKSAVE_FILE = "quicksave.snapshot";
+    public static final int LEVEL_CACHE_SIZE = 8;
+    private SnapshotRing history;
+    private boolean rewinding = false;
+    private boolean saveKeyDown = false;
+    private boolean loadKeyDown = false;
+
+    // ✅ Sound effects are preloaded voices, at most one play per effect per frame
+    private SoundManager sounds = new SoundManager(new GreenfootSoundBackend());
+
+    // ✅ "p" toggles the tick profiler and its overlay; off, it costs nothing
+    private TickProfiler profiler;
+    private ProfilerOverlay profilerOverlay;
+    private boolean profileKeyDown = false;
 
     // ✅ Background and game over music
-    private GreenfootSound bgMusic = new GreenfootSound("bgmusic.mp3");
-    private GreenfootSound gameOverSound = new GreenfootSound("gameover.mp3");
-
-    private boolean levelCompleteSoundPlayed = false;
-    
-    // ✅ BOSS SYSTEM VARIABLES
-    private boolean bossLevel = false;
-    private boolean bossDefeated = false;
-    private Boss currentBoss = null;
+    private GreenfootSound bgMusic = SoundCache.take("bgmusic.mp3");
+    private GreenfootSound gameOverSound = SoundCache.take("gameover.mp3");
 
     public GameWorld()
-    {    
+    {
+        this(0);
+    }
+
+    // ✅ Swarm mode for stress tests: every normal level gets swarmSize enemies
+    public GameWorld(int swarmSize)
+    {
+        this(new Replay(System.nanoTime(), 1, swarmSize), false, null);
+    }
+
+    // ✅ From the title screen, which has already been laying out level 1 for this seed
+    public GameWorld(long seed, LevelCache layouts)
+    {
+        this(new Replay(seed, 1, 0), false, layouts);
+    }
+
+    // ✅ Watch a recorded game, e.g. "last.replay" saved when a game is stopped
+    public GameWorld(String replayFile)
+    {
+        this(loadReplay(replayFile), true, null);
+    }
+
+    private GameWorld(Replay replay, boolean playingBack, LevelCache layouts)
+    {
         super(800, 600, 1);
-        GreenfootImage bg = new GreenfootImage("bg.png");  
-        bg.scale(getWidth(), getHeight());  
-        setBackground(bg);
+        setBackground(SpriteCache.get("bg.png", getWidth(), getHeight()));
 
-        startLevel(1);
+        // ✅ The next level is laid out in the background while this one is played
+        if (layouts == null)
+        {
+            layouts = new LevelCache(replay.getSeed(), LEVEL_CACHE_SIZE, LevelCache.backgroundExecutor());
+        }
+
+        this.replay = replay;
+        this.playingBack = playingBack;
+        sim = replay.createSimulation(this, layouts);
+
+        // ✅ Crowded levels (swarm mode) prepare their moves on all cores
+        sim.setUpdatePool(ForkJoinPool.commonPool());
+        int swarmSize = replay.getSwarmSize();
+
+        // ✅ Stars and all bullets have no actors, each kind is drawn by one layer
+        addObject(new EntityLayer(sim.getEntities(SimEntity.STAR), EntityLayer.starSprite(), getWidth(), getHeight()),
+                  getWidth() / 2, getHeight() / 2);
+        addObject(new EcsLayer(sim.getEcs(), EcsLayer.sprites(), getWidth(), getHeight()),
+                  getWidth() / 2, getHeight() / 2);
+        addObject(new BossBulletLayer(sim.getBossBullets(), getWidth(), getHeight()), getWidth() / 2, getHeight() / 2);
+
+        if (swarmSize > 0)
+        {
+            addObject(new SwarmLayer(sim.getSwarm(), getWidth(), getHeight()), getWidth() / 2, getHeight() / 2);
+        }
+
+        // ✅ Swarm levels are too big to snapshot every tick
+        if (!playingBack && swarmSize == 0)
+        {
+            history = new SnapshotRing(REWIND_TICKS, SNAPSHOT_SLOT_SIZE);
+        }
+
+        // ✅ HUD redraws itself only when the numbers it shows change
+        setPaintOrder(ProfilerOverlay.class, Hud.class, HudMessage.class);
+        addObject(new Hud(sim), 400, 30);
+        addObject(new HudMessage(sim), 400, 300);
 
         // ✅ Start music immediately when GameWorld is created
         bgMusic.setVolume(60);
         bgMusic.playLoop();
     }
 
+    private static Replay loadReplay(String file)
+    {
+        try
+        {
+            return Replay.load(file);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Cannot read replay " + file, e);
+        }
+    }
+
     public void act()
     {
-        showText("Level: " + level + "  Lives: " + lives + "  Score: " + score + "  Stars Left: " + starsLeft, 400, 30);
-    
-        if (levelComplete)
+        if (launchTime != 0)
+        {
+            System.out.println(String.format("First frame %.1f ms after ENTER; %s",
+                (System.nanoTime() - launchTime) / 1e6, SpriteCache.describe()));
+            launchTime = 0;
+        }
+
+        toggleProfilerOnKey();
+        if (profiler != null) profiler.frame();
+        if (!playingBack) handleSnapshotKeys();
+
+        // ✅ Rewinding steps back one tick per frame instead of playing on
+        if (rewinding)
+        {
+            lastFrameTime = 0;
+            unsimulated = 0;
+            interpolation = Motion.ONE;
+            return;
+        }
+
+        long now = System.nanoTime();
+        unsimulated += lastFrameTime == 0 ? TICK_NANOS : now - lastFrameTime;
+        lastFrameTime = now;
+
+        int ticks = 0;
+        while (unsimulated >= TICK_NANOS && ticks < MAX_TICKS_PER_FRAME)
+        {
+            if (!tick()) return;
+            unsimulated -= TICK_NANOS;
+            ticks++;
+        }
+
+        // ✅ Too far behind to catch up: drop the backlog and let the game slow down
+        if (unsimulated >= TICK_NANOS)
+        {
+            unsimulated %= TICK_NANOS;
+        }
+        interpolation = (int) (unsimulated * Motion.ONE / TICK_NANOS);
+
+        sounds.endTick();
+    }
+
+    // One simulation tick; false once a replay has run out
+    private boolean tick()
+    {
+        if (playingBack)
         {
-            if (!levelCompleteSoundPlayed)
+            if (!replay.hasNext())
             {
-                Greenfoot.playSound("nextlevel.mp3");
-                levelCompleteSoundPlayed = true;
+                System.out.println("Replay finished: " + (replay.matches(sim) ? "matches" : "DIVERGED"));
+                Greenfoot.stop();
+                return false;
             }
+            sim.tick(replay.nextInput());
+        }
+        else
+        {
+            int input = readInput();
+            sim.tick(input);
+            replay.record(input);
+            if (history != null) captureHistory();
+        }
+        return true;
+    }
+
+    private void captureHistory()
+    {
+        while (!history.capture(sim))
+        {
+            int slotSize = history.getSlotSize() * 2;
+            if (slotSize > MAX_SNAPSHOT_SLOT_SIZE)
+            {
+                System.out.println("Snapshots no longer fit in " + history.getSlotSize() + " bytes, rewind is off");
+                history = null;
+                return;
+            }
+            history = history.withSlotSize(slotSize);
+        }
+    }
+
+    public void setLaunchTime(long nanos)
+    {
+        launchTime = nanos;
+    }
 
-            levelChangeTimer++;
-            showText("LEVEL COMPLETE! Next level in " + (60 - levelChangeTimer) + "...", 400, 300);
+    // How far the frame is between the last tick and the next one, 0 to Motion.ONE
+    public int getInterpolation()
+    {
+        return interpolation;
+    }
 
-            if (levelChangeTimer >= 60)
+    private void toggleProfilerOnKey()
+    {
+        boolean down = Greenfoot.isKeyDown("p");
+        if (down && !profileKeyDown)
+        {
+            if (profilerOverlay == null)
             {
-                levelChangeTimer = 0;
-                levelComplete = false;
-                levelCompleteSoundPlayed = false;
-
-                if (level < 100)
-                {
-                    level++;
-                    lives = 3;
-                    startLevel(level);
-                }
-                else
-                {
-                    gameWon();
-                }
+                if (profiler == null) profiler = new TickProfiler();
+                sim.setProfiler(profiler);
+                profilerOverlay = new ProfilerOverlay(profiler);
+                GreenfootImage image = profilerOverlay.getImage();
+                addObject(profilerOverlay, image.getWidth() / 2, 40 + image.getHeight() / 2);
+            }
+            else
+            {
+                sim.setProfiler(null);
+                removeObject(profilerOverlay);
+                profilerOverlay = null;
             }
         }
+        profileKeyDown = down;
+    }
 
-        if (gameOver)
+    private void handleSnapshotKeys()
+    {
+        boolean wasRewinding = rewinding;
+        rewinding = history != null && Greenfoot.isKeyDown("backspace") && restore(() -> history.rewind(sim));
+
+        // ✅ The recording carries on from wherever the rewind stopped
+        if (wasRewinding && !rewinding)
         {
-            // ✅ Display game over message with score and level achieved
-            showText("GAME OVER!", 400, 250);
-            showText("Level Reached: " + level + "  |  Final Score: " + score, 400, 300);
-            showText("Press R to restart", 400, 350);
-            
-            if (Greenfoot.isKeyDown("r"))
+            replay = Replay.startingFrom(sim);
+        }
+
+        boolean save = Greenfoot.isKeyDown("k");
+        if (save && !saveKeyDown)
+        {
+            try
+            {
+                Files.write(Paths.get(QUICKSAVE_FILE), sim.snapshot());
+            }
+            catch (IOException e)
             {
-                restartGame();
+                System.out.println("Could not save " + QUICKSAVE_FILE + ": " + e.getMessage());
             }
         }
+        saveKeyDown = save;
 
-        // ✅ MODIFIED: Check level completion (stars collected AND boss defeated if boss level)
-        if (starsLeft == 0 && !levelComplete && !gameOver)
+        boolean load = Greenfoot.isKeyDown("l");
+        if (load && !loadKeyDown)
         {
-            if (bossLevel)
+            try
             {
-                // Boss level - must defeat boss to complete
-                if (bossDefeated)
-                {
-                    levelComplete = true;
-                    score += 100 * level;
-                }
+                byte[] snapshot = Files.readAllBytes(Paths.get(QUICKSAVE_FILE));
+                restore(() -> {
+                    sim.restoreSnapshot(snapshot);
+                    return true;
+                });
+                if (history != null) history.clear();
+                replay = Replay.startingFrom(sim);
             }
-            else
+            catch (IOException e)
             {
-                // Normal level - just collect stars
-                levelComplete = true;
-                score += 100 * level;
+                System.out.println("Could not load " + QUICKSAVE_FILE + ": " + e.getMessage());
             }
         }
+        loadKeyDown = load;
+    }
+
+    // ✅ Restores through the step given, then puts the music right for the restored game
+    private boolean restore(BooleanSupplier step)
+    {
+        boolean wasGameOver = sim.isGameOver();
+        if (!step.getAsBoolean()) return false;
+
+        if (sim.isGameOver() && !wasGameOver) gameOver();
+        else if (!sim.isGameOver() && wasGameOver) gameRestarted();
+        return true;
+    }
+
+    private int readInput()
+    {
+        int input = 0;
+        if (Greenfoot.isKeyDown("w")) input |= Simulation.KEY_UP;
+        if (Greenfoot.isKeyDown("s")) input |= Simulation.KEY_DOWN;
+        if (Greenfoot.isKeyDown("a")) input |= Simulation.KEY_LEFT;
+        if (Greenfoot.isKeyDown("d")) input |= Simulation.KEY_RIGHT;
+        if (Greenfoot.isKeyDown("space")) input |= Simulation.KEY_FIRE;
+        if (Greenfoot.isKeyDown("r")) input |= Simulation.KEY_RESTART;
+        return input;
     }
 
     // ✅ Runs when world gains focus (e.g. resume after pause)
     public void started()
     {
+        // ✅ Time spent paused is not simulated
+        lastFrameTime = 0;
+        unsimulated = 0;
+
         if (!bgMusic.isPlaying()) {
             bgMusic.playLoop();
         }
@@ -116,139 +335,108 @@ public class GameWorld extends World
     {
         bgMusic.stop();
         gameOverSound.stop();
-    }
-
-    public void startLevel(int levelNum)
-    {
-        removeObjects(getObjects(null));
+        sounds.stopAll();
 
-        // ✅ Check if this is a boss level (5, 10, 15, 20, 25...)
-        bossLevel = (levelNum % 5 == 0);
-        bossDefeated = false;
-
-        addObject(new Player(), 100, 300);
-
-        if (bossLevel)
+        // ✅ Profiled games also leave their numbers behind
+        if (profiler != null)
         {
-            // ✅ BOSS LEVEL - No enemies, fewer stars
-            int numStars = 2 + (levelNum / 10);  // Fewer stars on boss levels
-            starsLeft = numStars;
-            for (int i = 0; i < numStars; i++)
+            try
             {
-                int x = Greenfoot.getRandomNumber(600) + 150;
-                int y = Greenfoot.getRandomNumber(400) + 100;
-                addObject(new Star(), x, y);
+                profiler.save("profile.csv");
+            }
+            catch (IOException e)
+            {
+                System.out.println("Could not save profile.csv: " + e.getMessage());
             }
-
-            // ✅ Spawn boss in center-right of screen
-            currentBoss = new Boss(levelNum);
-            addObject(currentBoss, 600, 300);
-
-            showText("⚠️ BOSS LEVEL " + levelNum + " ⚠️", 400, 300);
-            Greenfoot.delay(90);
-            showText("", 400, 300);
         }
-        else
+
+        // ✅ Keep the game played so far, overwriting the previous one
+        if (!playingBack && replay.getTickCount() > 0)
         {
-            // ✅ NORMAL LEVEL - Regular enemies and stars
-            int numStars = 3 + levelNum;
-            starsLeft = numStars;
-            for (int i = 0; i < numStars; i++)
+            replay.finish(sim);
+            try
             {
-                int x = Greenfoot.getRandomNumber(600) + 150;
-                int y = Greenfoot.getRandomNumber(400) + 100;
-                addObject(new Star(), x, y);
+                replay.save("last.replay");
             }
-
-            int numEnemies = levelNum;
-            for (int i = 0; i < numEnemies; i++)
+            catch (IOException e)
             {
-                int x = Greenfoot.getRandomNumber(400) + 300;
-                int y = Greenfoot.getRandomNumber(400) + 100;
-                addObject(new Enemy(), x, y);
+                System.out.println("Could not save last.replay: " + e.getMessage());
             }
-
-            showText("LEVEL " + levelNum + " - Collect all stars!", 400, 300);
-            Greenfoot.delay(60);
-            showText("", 400, 300);
         }
     }
 
-    public void starCollected()
+    public void entityAdded(SimEntity entity)
     {
-        starsLeft--;
-        score += 10;
+        Actor view = createView(entity);
+        if (view != null)
+        {
+            entity.setView(view);
+            addObject(view, entity.getX(), entity.getY());
+        }
     }
 
-    public boolean playerHit()
+    public void entityRemoved(SimEntity entity)
     {
-        lives--;
+        Actor view = (Actor) entity.getView();
+        if (view != null)
+        {
+            entity.setView(null);
+            removeObject(view);
+        }
+    }
 
-        if (lives <= 0)
+    // Rewinding restores every frame, so the views stay and follow the new entities
+    public void entityReplaced(SimEntity old, SimEntity entity)
+    {
+        Object view = old.getView();
+        if (view instanceof EntityView)
         {
-            bgMusic.stop();                  
-            gameOverSound.setVolume(70);    
-            gameOverSound.playLoop();       
-            gameOver = true;
-            return false;
+            old.setView(null);
+            entity.setView(view);
+            ((EntityView) view).setModel(entity);
         }
         else
         {
-            Greenfoot.playSound("respawn.mp3");   
-            removeObjects(getObjects(Player.class));
-
-            Player newPlayer = new Player();
-            addObject(newPlayer, 100, 300);
-            newPlayer.startImmunity();
-
-            return true;
+            entityRemoved(old);
+            entityAdded(entity);
         }
     }
 
-    public void gameWon()
+    // ✅ null for the kinds an EntityLayer draws
+    private Actor createView(SimEntity entity)
     {
-        showText("CONGRATULATIONS! YOU WON!", 400, 250);
-        showText("Final Score: " + score + "  |  All 100 Levels Complete!", 400, 300);
-        showText("Press R to play again", 400, 350);
-        gameOver = true;
+        if (entity instanceof SimPlayer) return new Player((SimPlayer) entity);
+        if (entity instanceof SimEnemy) return new Enemy((SimEnemy) entity);
+        if (entity instanceof SimBoss) return new Boss((SimBoss) entity);
+        if (entity instanceof SimWeakPoint) return new BossWeakPoint((SimWeakPoint) entity);
+        if (entity instanceof SimStar) return null;
+        throw new IllegalArgumentException("No view for " + entity.getClass().getName());
     }
 
-    public void restartGame()
+    public void soundPlayed(int effect)
     {
-        gameOverSound.stop();     
+        sounds.trigger(effect);
+    }
 
-        // ✅ Clear all text from screen
-        showText("", 400, 250);
-        showText("", 400, 300);
-        showText("", 400, 350);
+    public void gameOver()
+    {
+        bgMusic.stop();
+        gameOverSound.setVolume(70);
+        gameOverSound.playLoop();
+    }
+
+    public void gameRestarted()
+    {
+        gameOverSound.stop();
 
         // ✅ Recreate the background music to ensure it starts fresh
         bgMusic = new GreenfootSound("bgmusic.mp3");
         bgMusic.setVolume(60);
-        bgMusic.playLoop();       
-
-        level = 1;
-        lives = 3;
-        score = 0;
-        gameOver = false;
-        levelComplete = false;
-        levelChangeTimer = 0;
-        startLevel(1);
-    }
-    
-    // ✅ NEW METHOD: Called when boss is defeated
-    public void bossDefeated(int bossLevel)
-    {
-        bossDefeated = true;
-        
-        // Award massive bonus score for defeating boss
-        score += 500 * (bossLevel / 5);  // Level 5 boss = 500, Level 10 = 1000, etc.
-        
-        // Show victory message
-        showText("🎉 BOSS DEFEATED! 🎉", 400, 250);
-        Greenfoot.delay(60);
-        showText("", 400, 250);
-        
-        currentBoss = null;
-    }
-}
\ No newline at end of file
+        bgMusic.playLoop();
+    }
+
+    public Simulation getSimulation()
+    {
+        return sim;
+    }
+}
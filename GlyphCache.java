@@ -0,0 +1,92 @@
+import greenfoot.*;
+import java.util.HashMap;
+
+// Pre-rendered text for the HUD: one image per digit and per fixed label,
+// drawn the same way showText() draws (white with a black outline), so a
+// line of text is composed with drawImage() instead of rendering strings.
+public class GlyphCache
+{
+    private static final int FONT_SIZE = 24;
+    private static final Color TRANSPARENT = new Color(0, 0, 0, 0);
+
+    private static final GreenfootImage[] digits = new GreenfootImage[10];
+    private static final HashMap<String, GreenfootImage> labels = new HashMap<String, GreenfootImage>();
+
+    public static GreenfootImage text(String label)
+    {
+        GreenfootImage image = labels.get(label);
+        if (image == null)
+        {
+            image = render(label);
+            labels.put(label, image);
+        }
+        return image;
+    }
+
+    public static GreenfootImage digit(int digit)
+    {
+        if (digits[digit] == null)
+        {
+            digits[digit] = render(String.valueOf(digit));
+        }
+        return digits[digit];
+    }
+
+    public static int textWidth(String label)
+    {
+        return text(label).getWidth();
+    }
+
+    public static int numberWidth(int number)
+    {
+        int width = number < 0 ? textWidth("-") : 0;
+        number = Math.abs(number);
+        do
+        {
+            width += digit(number % 10).getWidth();
+            number /= 10;
+        }
+        while (number > 0);
+        return width;
+    }
+
+    public static int getLineHeight()
+    {
+        return digit(0).getHeight();
+    }
+
+    // Draws a label with its left edge at x, vertically centred on y; returns the next x
+    public static int drawText(GreenfootImage target, String label, int x, int y)
+    {
+        GreenfootImage image = text(label);
+        target.drawImage(image, x, y - image.getHeight() / 2);
+        return x + image.getWidth();
+    }
+
+    public static int drawNumber(GreenfootImage target, int number, int x, int y)
+    {
+        if (number < 0)
+        {
+            x = drawText(target, "-", x, y);
+            number = -number;
+        }
+
+        // Digits are drawn right to left, so start at the far end
+        int end = x + numberWidth(number);
+        int right = end;
+        do
+        {
+            GreenfootImage image = digit(number % 10);
+            right -= image.getWidth();
+            target.drawImage(image, right, y - image.getHeight() / 2);
+            number /= 10;
+        }
+        while (number > 0);
+        return end;
+    }
+
+    private static GreenfootImage render(String text)
+    {
+        return new GreenfootImage(text, FONT_SIZE, Color.WHITE, TRANSPARENT, Color.BLACK);
+    }
+}
@@ -0,0 +1,29 @@
+import greenfoot.*;
+
+// Voices backed by GreenfootSound. Each one is created once up front and
+// replayed, instead of Greenfoot.playSound() loading the file on every call.
+// Copies AssetPreloader made in the background are used first.
+public class GreenfootSoundBackend implements SoundBackend
+{
+    public Voice load(String file)
+    {
+        final GreenfootSound sound = SoundCache.take(file);
+        return new Voice()
+        {
+            public void play()
+            {
+                sound.play();
+            }
+
+            public void stop()
+            {
+                sound.stop();
+            }
+
+            public boolean isPlaying()
+            {
+                return sound.isPlaying();
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+// Runs the Simulation with no window, sound or frame delay.
+// Usage: java HeadlessRunner [ticks] [startLevel] [swarmSize] [seed] [replayFile]
+// The built-in bot holds fire, wanders, and restarts after a game over, so the
+// run keeps exercising stars, enemies, bosses and bullets for soak tests.
+// With a replayFile the run is recorded for ReplayRunner, and with
+// -Dprofile=file.csv (or .json) every tick is profiled into that file.
+// -Dthreads=N prepares large updates on N threads, and -Dlayouts=dir keeps
+// the generated level layouts in dir for later runs with the same seed.
+public class HeadlessRunner
+{
+    public static void main(String[] args) throws IOException
+    {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        int startLevel = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int swarmSize = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        String replayFile = args.length > 4 ? args[4] : null;
+
+        // Sounds go through the real manager, just with a silent backend
+        final SoundManager sounds = new SoundManager(new NullSoundBackend());
+        Replay replay = new Replay(seed, startLevel, swarmSize);
+        Simulation sim = replay.createSimulation(new SimListener()
+        {
+            public void soundPlayed(int effect)
+            {
+                sounds.trigger(effect);
+            }
+        });
+
+        ForkJoinPool pool = updatePool();
+        sim.setUpdatePool(pool);
+
+        LevelCache layouts = new LevelCache(seed, 8, LevelCache.backgroundExecutor());
+        String layoutDirectory = System.getProperty("layouts");
+        if (layoutDirectory != null)
+        {
+            layouts.setDirectory(new File(layoutDirectory));
+        }
+        sim.setLevelCache(layouts);
+
+        String profileFile = System.getProperty("profile");
+        if (profileFile != null)
+        {
+            sim.setProfiler(new TickProfiler());
+        }
+
+        InputPolicy bot = new WanderPolicy(~seed);
+
+        int highestLevel = startLevel;
+        int gamesOver = 0;
+        boolean wasGameOver = false;
+
+        long start = System.nanoTime();
+        for (long t = 0; t < ticks; t++)
+        {
+            int input = bot.nextInput(sim);
+            if (sim.isGameOver())
+            {
+                if (!wasGameOver) gamesOver++;
+                input |= Simulation.KEY_RESTART;
+            }
+            wasGameOver = sim.isGameOver();
+
+            sim.tick(input);
+            sounds.endTick();
+            replay.record(input);
+            highestLevel = Math.max(highestLevel, sim.getLevel());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1e9;
+        System.out.println("Ticks:         " + ticks);
+        System.out.println("Elapsed:       " + String.format("%.3f s", seconds));
+        System.out.println("Ticks/second:  " + String.format("%.0f", ticks / seconds));
+        System.out.println("Highest level: " + highestLevel);
+        System.out.println("Games over:    " + gamesOver);
+        System.out.println("Bullets:       " + sim.getEcs().getPeakCount() + " player at peak, "
+            + sim.getBossBullets().getPeakCount() + " boss at peak");
+        System.out.println("Sounds:        " + sounds.getPlayedCount() + " played, "
+            + sounds.getMergedCount() + " merged");
+        System.out.println("Final state:   level " + sim.getLevel() + ", lives " + sim.getLives()
+            + ", score " + sim.getScore() + ", stars left " + sim.getStarsLeft());
+        System.out.println("Seed:          " + seed);
+
+        if (profileFile != null)
+        {
+            TickProfiler profiler = sim.getProfiler();
+            profiler.save(profileFile);
+            System.out.println("Tick time:     " + String.format("p50 %d ns, p99 %d ns, max %d ns",
+                profiler.tickPercentile(50), profiler.tickPercentile(99), profiler.tickPercentile(100)));
+            System.out.println("Profile:       " + profileFile);
+        }
+
+        if (replayFile != null)
+        {
+            replay.finish(sim);
+            replay.save(replayFile);
+            System.out.println("Recorded:      " + replayFile);
+        }
+    }
+
+    // -Dthreads=N, or none for a single-threaded run
+    static ForkJoinPool updatePool()
+    {
+        int threads = Integer.getInteger("threads", 1);
+        return threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+}
@@ -0,0 +1,53 @@
+import greenfoot.*;
+
+// Status line at the top of the screen. It only redraws its cached image when
+// level, lives, score or stars left change; steady frames touch nothing.
+public class Hud extends Actor
+{
+    private final Simulation sim;
+    private final GreenfootImage canvas = new GreenfootImage(800, 36);
+
+    private int level = -1;
+    private int lives = -1;
+    private int score = -1;
+    private int starsLeft = -1;
+
+    public Hud(Simulation sim)
+    {
+        this.sim = sim;
+        setImage(canvas);
+    }
+
+    public void act()
+    {
+        if (sim.getLevel() != level || sim.getLives() != lives
+            || sim.getScore() != score || sim.getStarsLeft() != starsLeft)
+        {
+            level = sim.getLevel();
+            lives = sim.getLives();
+            score = sim.getScore();
+            starsLeft = sim.getStarsLeft();
+            redraw();
+        }
+    }
+
+    private void redraw()
+    {
+        int width = GlyphCache.textWidth("Level: ") + GlyphCache.numberWidth(level)
+            + GlyphCache.textWidth("  Lives: ") + GlyphCache.numberWidth(lives)
+            + GlyphCache.textWidth("  Score: ") + GlyphCache.numberWidth(score)
+            + GlyphCache.textWidth("  Stars Left: ") + GlyphCache.numberWidth(starsLeft);
+        int x = (canvas.getWidth() - width) / 2;
+        int y = canvas.getHeight() / 2;
+
+        canvas.clear();
+        x = GlyphCache.drawText(canvas, "Level: ", x, y);
+        x = GlyphCache.drawNumber(canvas, level, x, y);
+        x = GlyphCache.drawText(canvas, "  Lives: ", x, y);
+        x = GlyphCache.drawNumber(canvas, lives, x, y);
+        x = GlyphCache.drawText(canvas, "  Score: ", x, y);
+        x = GlyphCache.drawNumber(canvas, score, x, y);
+        x = GlyphCache.drawText(canvas, "  Stars Left: ", x, y);
+        GlyphCache.drawNumber(canvas, starsLeft, x, y);
+    }
+}
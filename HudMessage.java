@@ -0,0 +1,133 @@
+import greenfoot.*;
+
+// The three centre lines (banners, countdown, game over). Like Hud, it keeps
+// the last state it drew and only redraws its cached image when that changes.
+public class HudMessage extends Actor
+{
+    private static final int NONE = 0;
+    private static final int WON = 1;
+    private static final int GAME_OVER = 2;
+    private static final int BOSS_DEFEATED = 3;
+    private static final int BOSS_LEVEL = 4;
+    private static final int LEVEL_START = 5;
+    private static final int COUNTDOWN = 6;
+
+    // Number slot not used by a line
+    private static final int NO_NUMBER = Integer.MIN_VALUE;
+
+    private final Simulation sim;
+    private final GreenfootImage canvas = new GreenfootImage(800, 150);
+
+    private int top = -1;
+    private int middle = -1;
+    private int numberA = 0;
+    private int numberB = 0;
+
+    public HudMessage(Simulation sim)
+    {
+        this.sim = sim;
+        setImage(SpriteCache.blank(1, 1));
+    }
+
+    public void act()
+    {
+        int newTop = NONE;
+        int newMiddle = NONE;
+        int newA = 0;
+        int newB = 0;
+
+        if (sim.isGameWon())
+        {
+            newTop = WON;
+            newA = sim.getScore();
+        }
+        else if (sim.isGameOver())
+        {
+            newTop = GAME_OVER;
+            newA = sim.getLevel();
+            newB = sim.getScore();
+        }
+        else
+        {
+            if (sim.isShowingBossDefeated())
+            {
+                newTop = BOSS_DEFEATED;
+            }
+
+            if (sim.isStartingLevel())
+            {
+                newMiddle = sim.isBossLevel() ? BOSS_LEVEL : LEVEL_START;
+                newA = sim.getLevel();
+            }
+            else if (sim.isLevelComplete())
+            {
+                newMiddle = COUNTDOWN;
+                newA = 60 - sim.getLevelChangeTimer();
+            }
+        }
+
+        if (newTop != top || newMiddle != middle || newA != numberA || newB != numberB)
+        {
+            top = newTop;
+            middle = newMiddle;
+            numberA = newA;
+            numberB = newB;
+            redraw();
+        }
+    }
+
+    private void redraw()
+    {
+        if (top == NONE && middle == NONE)
+        {
+            setImage(SpriteCache.blank(1, 1));
+            return;
+        }
+
+        canvas.clear();
+        switch (top)
+        {
+            case WON:
+                drawLine(25, "CONGRATULATIONS! YOU WON!", NO_NUMBER, "", NO_NUMBER);
+                drawLine(75, "Final Score: ", numberA, "  |  All 100 Levels Complete!", NO_NUMBER);
+                drawLine(125, "Press R to play again", NO_NUMBER, "", NO_NUMBER);
+                break;
+            case GAME_OVER:
+                drawLine(25, "GAME OVER!", NO_NUMBER, "", NO_NUMBER);
+                drawLine(75, "Level Reached: ", numberA, "  |  Final Score: ", numberB);
+                drawLine(125, "Press R to restart", NO_NUMBER, "", NO_NUMBER);
+                break;
+            case BOSS_DEFEATED:
+                drawLine(25, "🎉 BOSS DEFEATED! 🎉", NO_NUMBER, "", NO_NUMBER);
+                break;
+        }
+
+        switch (middle)
+        {
+            case BOSS_LEVEL:
+                drawLine(75, "⚠️ BOSS LEVEL ", numberA, " ⚠️", NO_NUMBER);
+                break;
+            case LEVEL_START:
+                drawLine(75, "LEVEL ", numberA, " - Collect all stars!", NO_NUMBER);
+                break;
+            case COUNTDOWN:
+                drawLine(75, "LEVEL COMPLETE! Next level in ", numberA, "...", NO_NUMBER);
+                break;
+        }
+        setImage(canvas);
+    }
+
+    // Draws "label number label number" centred on the canvas at height y
+    private void drawLine(int y, String first, int a, String second, int b)
+    {
+        int width = GlyphCache.textWidth(first) + GlyphCache.textWidth(second);
+        if (a != NO_NUMBER) width += GlyphCache.numberWidth(a);
+        if (b != NO_NUMBER) width += GlyphCache.numberWidth(b);
+
+        int x = (canvas.getWidth() - width) / 2;
+        x = GlyphCache.drawText(canvas, first, x, y);
+        if (a != NO_NUMBER) x = GlyphCache.drawNumber(canvas, a, x, y);
+        x = GlyphCache.drawText(canvas, second, x, y);
+        if (b != NO_NUMBER) GlyphCache.drawNumber(canvas, b, x, y);
+    }
+}
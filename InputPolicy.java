@@ -0,0 +1,6 @@
+// Scripted input for a headless game: the KEY_* bits to hold for the next
+// tick, decided from the state the game is in. One instance drives one game.
+public interface InputPolicy
+{
+    int nextInput(Simulation sim);
+}
@@ -0,0 +1,185 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+// Level layouts for one game seed, generated ahead of time. prefetch() hands
+// a level to the executor; get() returns its layout, waiting if the job is
+// still running, or generates it right there if nobody asked earlier. Since
+// LevelGenerator only depends on the seed and the level, a layout is the same
+// whichever way it was made. At most capacity layouts are kept, the least
+// recently used dropped first. With a directory set, layouts are also saved
+// there by seed and read back instead of generated. Only the game thread
+// calls in here; the executor only runs the jobs.
+public class LevelCache
+{
+    private static ExecutorService background;
+
+    private final long seed;
+    private final int capacity;
+    private final Executor executor;
+    private final DifficultyTable difficulty;
+    private File directory = null;
+
+    // Keyed by level and swarm size, see key()
+    private final LinkedHashMap<Long, FutureTask<LevelLayout>> layouts;
+
+    // A null executor generates every layout on demand
+    public LevelCache(long seed, int capacity, Executor executor)
+    {
+        this(seed, capacity, executor, DifficultyTable.STANDARD);
+    }
+
+    public LevelCache(long seed, int capacity, Executor executor, DifficultyTable difficulty)
+    {
+        this.seed = seed;
+        this.capacity = capacity;
+        this.executor = executor;
+        this.difficulty = difficulty;
+        this.layouts = new LinkedHashMap<Long, FutureTask<LevelLayout>>(16, 0.75f, true);
+    }
+
+    // One daemon thread shared by every cache, so a game that is quit does not linger
+    public static synchronized Executor backgroundExecutor()
+    {
+        if (background == null)
+        {
+            background = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "level-generator");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return background;
+    }
+
+    // Ignored unless the table is STANDARD, as the files do not say which table made them
+    public void setDirectory(File directory)
+    {
+        this.directory = directory;
+    }
+
+    public void prefetch(int level, int swarmSize)
+    {
+        if (executor == null) return;
+
+        FutureTask<LevelLayout> job = job(level, swarmSize);
+        if (job != null)
+        {
+            executor.execute(job);
+        }
+    }
+
+    public LevelLayout get(int level, int swarmSize)
+    {
+        FutureTask<LevelLayout> job = job(level, swarmSize);
+        if (job == null)
+        {
+            job = layouts.get(key(level, swarmSize));
+        }
+
+        // Runs the job here unless the executor already has it; then it waits
+        job.run();
+        try
+        {
+            return job.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for level " + level, e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Level " + level + " could not be generated", e.getCause());
+        }
+    }
+
+    // A new job for the level, or null if one is cached already
+    private FutureTask<LevelLayout> job(final int level, final int swarmSize)
+    {
+        Long key = key(level, swarmSize);
+        if (layouts.containsKey(key))
+        {
+            layouts.get(key);
+            return null;
+        }
+
+        FutureTask<LevelLayout> job = new FutureTask<LevelLayout>(() -> generate(level, swarmSize));
+        layouts.put(key, job);
+
+        Iterator<Map.Entry<Long, FutureTask<LevelLayout>>> oldest = layouts.entrySet().iterator();
+        while (layouts.size() > capacity)
+        {
+            oldest.next();
+            oldest.remove();
+        }
+        return job;
+    }
+
+    private LevelLayout generate(int level, int swarmSize)
+    {
+        File file = directory != null && difficulty == DifficultyTable.STANDARD
+            ? new File(directory, Long.toHexString(seed) + "-" + level + "-" + swarmSize + ".layout")
+            : null;
+
+        if (file != null && file.isFile())
+        {
+            try
+            {
+                return LevelLayout.load(file);
+            }
+            catch (IOException e)
+            {
+                // Unreadable, so it is generated and written again
+            }
+        }
+
+        LevelLayout layout = LevelGenerator.generate(seed, level, swarmSize, difficulty);
+        if (file != null)
+        {
+            try
+            {
+                directory.mkdirs();
+                layout.save(file);
+            }
+            catch (IOException e)
+            {
+                System.out.println("Could not save " + file + ": " + e.getMessage());
+            }
+        }
+        return layout;
+    }
+
+    private static Long key(int level, int swarmSize)
+    {
+        return ((long) swarmSize << 32) | (level & 0xFFFFFFFFL);
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public DifficultyTable getDifficulty()
+    {
+        return difficulty;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public int size()
+    {
+        return layouts.size();
+    }
+}
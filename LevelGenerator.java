@@ -0,0 +1,142 @@
+// Rolls the layout of a level from the game seed and the level number alone,
+// so the same level always comes out the same, whichever thread builds it and
+// whenever. Stars are checked before they are placed: they keep a minimum
+// distance from each other, stay clear of the player spawn, the enemies and
+// the boss with its weak point orbit, and lie where the player can move.
+// A star that finds no clear spot within MAX_ATTEMPTS tries again ignoring
+// the enemies (on late levels they cover their whole area), then with stars
+// only kept from overlapping, and only then goes wherever the last roll put
+// it. Enemies may overlap each other, as they do in play anyway.
+public class LevelGenerator
+{
+    public static final int PLAYER_X = 100;
+    public static final int PLAYER_Y = 300;
+    public static final int BOSS_X = 600;
+    public static final int BOSS_Y = 300;
+
+    private static final int MAX_ATTEMPTS = 32;
+    private static final int STAR_SIZE = 20;
+    private static final int STAR_SPACING = 20;
+    private static final int PLAYER_SIZE = 50;
+    private static final int SPAWN_CLEARANCE = 40;
+    private static final int ENEMY_SIZE = 80;
+    // Boss plus the orbit of its weak points (radius 60, 30 across)
+    private static final int BOSS_ZONE = 2 * (60 + 15);
+
+    // Where the player's centre can go, see SimPlayer.handleMovement()
+    private static final int REACH_MIN_X = 15;
+    private static final int REACH_MAX_X = Simulation.WIDTH - 15;
+    private static final int REACH_MIN_Y = 15;
+    private static final int REACH_MAX_Y = Simulation.HEIGHT - 50;
+
+    public static LevelLayout generate(long seed, int level, int swarmSize)
+    {
+        return generate(seed, level, swarmSize, DifficultyTable.STANDARD);
+    }
+
+    public static LevelLayout generate(long seed, int level, int swarmSize, DifficultyTable difficulty)
+    {
+        SeededRandom random = new SeededRandom(seed ^ (level * 0x9E3779B97F4A7C15L));
+        boolean bossLevel = (level % 5 == 0);
+        LevelLayout layout = new LevelLayout(level, bossLevel);
+
+        int numStars = difficulty.getStars(level);
+        int numEnemies;
+        int bossHeading = 0;
+        if (bossLevel)
+        {
+            // Boss level - no enemies
+            numEnemies = 0;
+            bossHeading = random.nextInt(360);
+        }
+        else
+        {
+            // Normal level - regular enemies; swarm mode replaces them
+            numEnemies = swarmSize > 0 ? swarmSize : difficulty.getEnemies(level);
+        }
+
+        // Enemies first, so the stars can keep clear of them
+        int[] enemyX = new int[numEnemies];
+        int[] enemyY = new int[numEnemies];
+        int[] enemyHeading = new int[numEnemies];
+        for (int i = 0; i < numEnemies; i++)
+        {
+            enemyX[i] = random.nextInt(400) + 300;
+            enemyY[i] = random.nextInt(400) + 100;
+            enemyHeading[i] = random.nextInt(360);
+        }
+        // Swarm enemies are too many to check every star against
+        int obstacles = swarmSize > 0 ? 0 : numEnemies;
+
+        int[] starX = new int[numStars];
+        int[] starY = new int[numStars];
+        for (int i = 0; i < numStars; i++)
+        {
+            int x = 0;
+            int y = 0;
+            boolean placed = false;
+            for (int attempt = 0; attempt < 3 * MAX_ATTEMPTS && !placed; attempt++)
+            {
+                x = random.nextInt(600) + 150;
+                y = random.nextInt(400) + 100;
+                placed = isClear(x, y, starX, starY, i, attempt < 2 * MAX_ATTEMPTS ? STAR_SPACING : 0,
+                                 bossLevel, enemyX, enemyY, attempt < MAX_ATTEMPTS ? obstacles : 0);
+            }
+            starX[i] = x;
+            starY[i] = y;
+        }
+
+        layout.add(SimEntity.PLAYER, PLAYER_X, PLAYER_Y, 0);
+        for (int i = 0; i < numStars; i++)
+        {
+            layout.add(SimEntity.STAR, starX[i], starY[i], 0);
+        }
+        for (int i = 0; i < numEnemies; i++)
+        {
+            layout.add(SimEntity.ENEMY, enemyX[i], enemyY[i], enemyHeading[i]);
+        }
+        if (bossLevel)
+        {
+            layout.add(SimEntity.BOSS, BOSS_X, BOSS_Y, bossHeading);
+        }
+        return layout;
+    }
+
+    private static boolean isClear(int x, int y, int[] starX, int[] starY, int stars, int spacing,
+                                   boolean bossLevel, int[] enemyX, int[] enemyY, int enemies)
+    {
+        if (x < REACH_MIN_X || x > REACH_MAX_X || y < REACH_MIN_Y || y > REACH_MAX_Y)
+        {
+            return false;
+        }
+        if (overlaps(x, y, STAR_SIZE, PLAYER_X, PLAYER_Y, PLAYER_SIZE + 2 * SPAWN_CLEARANCE))
+        {
+            return false;
+        }
+        if (bossLevel && overlaps(x, y, STAR_SIZE, BOSS_X, BOSS_Y, BOSS_ZONE))
+        {
+            return false;
+        }
+        for (int i = 0; i < stars; i++)
+        {
+            if (overlaps(x, y, STAR_SIZE, starX[i], starY[i], STAR_SIZE + 2 * spacing))
+            {
+                return false;
+            }
+        }
+        for (int i = 0; i < enemies; i++)
+        {
+            if (overlaps(x, y, STAR_SIZE, enemyX[i], enemyY[i], ENEMY_SIZE))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Two squares given by centre and side length
+    private static boolean overlaps(int ax, int ay, int aSize, int bx, int by, int bSize)
+    {
+        return Math.abs(ax - bx) * 2 < aSize + bSize && Math.abs(ay - by) * 2 < aSize + bSize;
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Everything a level starts with, in spawn order: the player, the stars,
+// then the enemies or the boss, each as (kind, x, y, heading). Built once by
+// LevelGenerator and never changed afterwards, so a finished layout can be
+// handed from the generator thread to the game and shared through LevelCache.
+public class LevelLayout
+{
+    private static final int MAGIC = 0x47574C4C; // "GWLL"
+    private static final int VERSION = 1;
+
+    private final int level;
+    private final boolean bossLevel;
+    private byte[] kinds = new byte[64];
+    private short[] xs = new short[64];
+    private short[] ys = new short[64];
+    private short[] headings = new short[64];
+    private int count = 0;
+    private int starCount = 0;
+
+    public LevelLayout(int level, boolean bossLevel)
+    {
+        this.level = level;
+        this.bossLevel = bossLevel;
+    }
+
+    void add(int kind, int x, int y, int heading)
+    {
+        if (count == kinds.length)
+        {
+            int size = count * 2;
+            kinds = Arrays.copyOf(kinds, size);
+            xs = Arrays.copyOf(xs, size);
+            ys = Arrays.copyOf(ys, size);
+            headings = Arrays.copyOf(headings, size);
+        }
+        kinds[count] = (byte) kind;
+        xs[count] = (short) x;
+        ys[count] = (short) y;
+        headings[count] = (short) heading;
+        count++;
+        if (kind == SimEntity.STAR) starCount++;
+    }
+
+    public void save(File file) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(level);
+            out.writeBoolean(bossLevel);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++)
+            {
+                out.writeByte(kinds[i]);
+                out.writeShort(xs[i]);
+                out.writeShort(ys[i]);
+                out.writeShort(headings[i]);
+            }
+        }
+    }
+
+    public static LevelLayout load(File file) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION)
+            {
+                throw new IOException(file + " is not a version " + VERSION + " level layout");
+            }
+
+            LevelLayout layout = new LevelLayout(in.readInt(), in.readBoolean());
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++)
+            {
+                layout.add(in.readByte(), in.readShort(), in.readShort(), in.readShort());
+            }
+            return layout;
+        }
+    }
+
+    public int getLevel()
+    {
+        return level;
+    }
+
+    public boolean isBossLevel()
+    {
+        return bossLevel;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    public int getStarCount()
+    {
+        return starCount;
+    }
+
+    public int getKind(int index)
+    {
+        return kinds[index];
+    }
+
+    public int getX(int index)
+    {
+        return xs[index];
+    }
+
+    public int getY(int index)
+    {
+        return ys[index];
+    }
+
+    public int getHeading(int index)
+    {
+        return headings[index];
+    }
+}
@@ -0,0 +1,82 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Spawn queue for the level being built. Simulation.startLevel() rolls every
+// position and heading up front, then tick() creates the queued entities a
+// few at a time so no single frame has to build a whole level.
+public class LevelLoader
+{
+    private int[] kinds = new int[64];
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int[] headings = new int[64];
+    private int count = 0;
+    private int next = 0;
+
+    public void clear()
+    {
+        count = 0;
+        next = 0;
+    }
+
+    public void queue(int kind, int x, int y, int heading)
+    {
+        if (count == kinds.length)
+        {
+            int size = count * 2;
+            kinds = Arrays.copyOf(kinds, size);
+            xs = Arrays.copyOf(xs, size);
+            ys = Arrays.copyOf(ys, size);
+            headings = Arrays.copyOf(headings, size);
+        }
+        kinds[count] = kind;
+        xs[count] = x;
+        ys[count] = y;
+        headings[count] = heading;
+        count++;
+    }
+
+    public boolean hasPending()
+    {
+        return next < count;
+    }
+
+    public int getPendingCount()
+    {
+        return count - next;
+    }
+
+    // Snapshots carry only what is still to be spawned
+    public void save(ByteBuffer out)
+    {
+        out.putInt(count - next);
+        for (int i = next; i < count; i++)
+        {
+            out.put((byte) kinds[i]);
+            out.putShort((short) xs[i]);
+            out.putShort((short) ys[i]);
+            out.putShort((short) headings[i]);
+        }
+    }
+
+    public void load(ByteBuffer in)
+    {
+        clear();
+        int pending = in.getInt();
+        for (int i = 0; i < pending; i++)
+        {
+            queue(in.get(), in.getShort(), in.getShort(), in.getShort());
+        }
+    }
+
+    // Spawns up to budget queued entities through the simulation
+    public void spawn(Simulation sim, int budget)
+    {
+        while (budget > 0 && next < count)
+        {
+            sim.spawn(kinds[next], xs[next], ys[next], headings[next]);
+            next++;
+            budget--;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Ticks an entity has left before LifetimeSystem destroys it.
+public class LifetimeStore extends ComponentStore
+{
+    int[] ticksLeft = new int[64];
+
+    public void add(int id, int ticks)
+    {
+        int slot = insert(id);
+        ticksLeft[slot] = ticks;
+    }
+
+    public int getTicksLeft(int slot)
+    {
+        return ticksLeft[slot];
+    }
+
+    protected void grow(int capacity)
+    {
+        ticksLeft = Arrays.copyOf(ticksLeft, capacity);
+    }
+
+    protected void move(int from, int to)
+    {
+        ticksLeft[to] = ticksLeft[from];
+    }
+
+    protected void saveSlot(ByteBuffer out, int slot)
+    {
+        out.putShort((short) ticksLeft[slot]);
+    }
+
+    protected void loadSlot(ByteBuffer in, int slot)
+    {
+        ticksLeft[slot] = in.getShort();
+    }
+}
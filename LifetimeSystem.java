@@ -0,0 +1,20 @@
+// Counts down every lifetime and destroys the entities whose time is up.
+public final class LifetimeSystem
+{
+    private LifetimeSystem()
+    {
+    }
+
+    public static void run(Ecs ecs)
+    {
+        LifetimeStore lifetimes = ecs.getLifetimes();
+        for (int i = 0; i < lifetimes.size; i++)
+        {
+            int id = lifetimes.entities[i];
+            if (ecs.isAlive(id) && --lifetimes.ticksLeft[i] <= 0)
+            {
+                ecs.destroy(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+// Shared movement math for the Simulation. Headings are whole degrees, so
+// sin/cos come from 360-entry tables, and positions are kept in fixed point
+// (FIXED_SHIFT fractional bits) so per-tick movement is a lookup, a multiply
+// and integer adds, with sub-pixel steps carried over instead of truncated.
+public final class Motion
+{
+    public static final int FIXED_SHIFT = 10;
+    public static final int ONE = 1 << FIXED_SHIFT;
+    private static final int HALF = ONE >> 1;
+
+    private static final int[] COS = new int[360];
+    private static final int[] SIN = new int[360];
+
+    static
+    {
+        for (int degrees = 0; degrees < 360; degrees++)
+        {
+            double radians = Math.toRadians(degrees);
+            COS[degrees] = (int) Math.round(Math.cos(radians) * ONE);
+            SIN[degrees] = (int) Math.round(Math.sin(radians) * ONE);
+        }
+    }
+
+    private Motion()
+    {
+    }
+
+    public static int normalize(int degrees)
+    {
+        if (degrees >= 0 && degrees < 360) return degrees;
+        degrees %= 360;
+        return degrees < 0 ? degrees + 360 : degrees;
+    }
+
+    // cos/sin of a heading, scaled by ONE
+    public static int cos(int degrees)
+    {
+        return COS[normalize(degrees)];
+    }
+
+    public static int sin(int degrees)
+    {
+        return SIN[normalize(degrees)];
+    }
+
+    public static int toFixed(int pixels)
+    {
+        return pixels << FIXED_SHIFT;
+    }
+
+    // Fixed-point speeds such as the boss's 1.3 px per tick
+    public static int toFixed(double pixels)
+    {
+        return (int) Math.round(pixels * ONE);
+    }
+
+    // Rounds to the nearest whole pixel
+    public static int toPixels(int fixed)
+    {
+        return (fixed + HALF) >> FIXED_SHIFT;
+    }
+
+    // Heading of the vector (dx, dy) in whole degrees. StrictMath, so a replay
+    // aims the same on every JVM.
+    public static int headingTo(int dx, int dy)
+    {
+        return normalize((int) Math.round(Math.toDegrees(StrictMath.atan2(dy, dx))));
+    }
+
+    // Fixed-point x and y steps for moving speed (fixed point) along a heading
+    public static int stepX(int speed, int degrees)
+    {
+        return (speed * COS[normalize(degrees)]) >> FIXED_SHIFT;
+    }
+
+    public static int stepY(int speed, int degrees)
+    {
+        return (speed * SIN[normalize(degrees)]) >> FIXED_SHIFT;
+    }
+}
@@ -0,0 +1,84 @@
+// Microbenchmark for Motion: moves a crowd of projectiles the way the actors
+// used to (toRadians, cos, sin, truncate to int every tick) and the way the
+// Simulation does now (table lookup and fixed-point adds).
+// Usage: java MotionBenchmark [entities] [ticks]
+public class MotionBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args)
+    {
+        int entities = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        int[] headings = new int[entities];
+        for (int i = 0; i < entities; i++)
+        {
+            headings[i] = (i * 37) % 360;
+        }
+
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            long start = System.nanoTime();
+            sink += runTrig(headings, ticks);
+            long trig = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sink += runFixed(headings, ticks);
+            long fixed = System.nanoTime() - start;
+
+            // The first round is JIT warm-up
+            if (round > 0)
+            {
+                double moves = (double) entities * ticks;
+                System.out.println(String.format("Round %d: Math.cos/sin %.2f ns/move, Motion tables %.2f ns/move (%.1fx)",
+                    round, trig / moves, fixed / moves, (double) trig / fixed));
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static long runTrig(int[] headings, int ticks)
+    {
+        int speed = 8;
+        int[] x = new int[headings.length];
+        int[] y = new int[headings.length];
+        for (int t = 0; t < ticks; t++)
+        {
+            for (int i = 0; i < headings.length; i++)
+            {
+                double radians = Math.toRadians(headings[i]);
+                x[i] = (x[i] + (int)(speed * Math.cos(radians))) & 0xFFFF;
+                y[i] = (y[i] + (int)(speed * Math.sin(radians))) & 0xFFFF;
+            }
+        }
+        return checksum(x, y);
+    }
+
+    private static long runFixed(int[] headings, int ticks)
+    {
+        int speed = Motion.toFixed(8);
+        int[] x = new int[headings.length];
+        int[] y = new int[headings.length];
+        for (int t = 0; t < ticks; t++)
+        {
+            for (int i = 0; i < headings.length; i++)
+            {
+                x[i] = (x[i] + Motion.stepX(speed, headings[i])) & 0x3FFFFFF;
+                y[i] = (y[i] + Motion.stepY(speed, headings[i])) & 0x3FFFFFF;
+            }
+        }
+        return checksum(x, y);
+    }
+
+    private static long checksum(int[] x, int[] y)
+    {
+        long sum = 0;
+        for (int i = 0; i < x.length; i++)
+        {
+            sum += x[i] ^ y[i];
+        }
+        return sum;
+    }
+}
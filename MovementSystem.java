@@ -0,0 +1,21 @@
+// Moves every entity with a velocity by its step, clamped to the world.
+public final class MovementSystem
+{
+    private MovementSystem()
+    {
+    }
+
+    public static void run(Ecs ecs)
+    {
+        VelocityStore velocities = ecs.getVelocities();
+        PositionStore positions = ecs.getPositions();
+        for (int v = 0; v < velocities.size; v++)
+        {
+            int id = velocities.entities[v];
+            if (!ecs.isAlive(id)) continue;
+
+            int p = positions.indexOf(id);
+            positions.set(p, positions.fixedX[p] + velocities.stepX[v], positions.fixedY[p] + velocities.stepY[v]);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+// One player of a NetServer game. update() is called once a frame with the
+// keys held: it takes in whatever the server has sent, then sends the keys.
+// Snapshots arrive as deltas against one the client acknowledged earlier,
+// so the last HISTORY decoded states are kept as baselines. Every input
+// carries a sequence number the server echoes in its snapshots; the time
+// from sending an input to the first snapshot that includes it, as received
+// by the next update(), is the end-to-end latency NetStats reports.
+// Headless test player: java NetClient [host] [port] [seed], a WanderPolicy
+// bot that restarts after a game over and prints its traffic and latency
+// once a second.
+public class NetClient
+{
+    private static final int HISTORY = 64;
+    // Sent input times are kept this far back
+    private static final int SENT_TIMES = 256;
+    private static final long HELLO_NANOS = 250000000L;
+
+    private final DatagramChannel channel;
+    private final ByteBuffer inBuffer = ByteBuffer.allocate(NetProtocol.MAX_PACKET);
+    private final ByteBuffer outBuffer = ByteBuffer.allocate(64);
+    private final NetState[] history = new NetState[HISTORY];
+    private final long[] sentTimes = new long[SENT_TIMES];
+    private final NetStats stats = new NetStats();
+
+    private NetState state = null;
+    private NetState previous = null;
+    private long stateTime = 0;
+    private int slot = -1;
+    private int joined = 0;
+    private int players = 0;
+    private int inputSeq = 0;
+    private int echoedSeq = -1;
+    private long lastHello = 0;
+    private boolean closed = false;
+
+    public NetClient(String host, int port) throws IOException
+    {
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(new InetSocketAddress(host, port));
+        for (int i = 0; i < HISTORY; i++)
+        {
+            history[i] = new NetState();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : NetProtocol.DEFAULT_PORT;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        NetClient client = new NetClient(host, port);
+        InputPolicy bot = new WanderPolicy(seed);
+        long nextFrame = System.nanoTime();
+        long lastReport = nextFrame;
+        while (!client.isClosed())
+        {
+            // The bot plays on after a game over
+            int input = bot.nextInput(null);
+            NetState state = client.getState();
+            if (state != null && state.hasFlag(NetState.GAME_OVER)) input |= Simulation.KEY_RESTART;
+            client.update(input);
+
+            long now = System.nanoTime();
+            if (now - lastReport >= 1000000000L)
+            {
+                lastReport = now;
+                System.out.println(client.describe());
+            }
+
+            nextFrame += NetProtocol.TICK_NANOS;
+            long wait = nextFrame - System.nanoTime();
+            if (wait > 0) Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+        }
+        System.out.println("Server closed the game");
+    }
+
+    // Once a frame with the KEY_* bits held
+    public void update(int input) throws IOException
+    {
+        if (closed) return;
+
+        receiveAll();
+        long now = System.nanoTime();
+
+        // Asks again until the game is running, which also keeps the player count current
+        if (state == null)
+        {
+            if (now - lastHello >= HELLO_NANOS)
+            {
+                lastHello = now;
+                outBuffer.clear();
+                NetProtocol.writeHeader(outBuffer, NetProtocol.HELLO);
+                send(now);
+            }
+            if (slot < 0) return;
+        }
+
+        inputSeq++;
+        sentTimes[inputSeq % SENT_TIMES] = now;
+        outBuffer.clear();
+        NetProtocol.writeHeader(outBuffer, NetProtocol.INPUT);
+        outBuffer.putInt(inputSeq);
+        outBuffer.put((byte) input);
+        outBuffer.putInt(state != null ? state.getTick() : -1);
+        send(now);
+    }
+
+    private void receiveAll() throws IOException
+    {
+        while (true)
+        {
+            inBuffer.clear();
+            // Nothing came in, or the server port is closed (reported as an error on a connected channel)
+            try
+            {
+                if (channel.receive(inBuffer) == null) return;
+            }
+            catch (IOException e)
+            {
+                return;
+            }
+
+            inBuffer.flip();
+            long now = System.nanoTime();
+            stats.received(inBuffer.remaining(), now);
+            switch (NetProtocol.readHeader(inBuffer))
+            {
+                case NetProtocol.WELCOME:
+                    if (inBuffer.remaining() < 3) break;
+                    slot = inBuffer.get();
+                    joined = inBuffer.get();
+                    players = inBuffer.get();
+                    break;
+                case NetProtocol.SNAPSHOT:
+                    snapshot(now);
+                    break;
+                case NetProtocol.BYE:
+                    closed = true;
+                    return;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // A truncated or corrupt snapshot is dropped like a lost one
+    private void snapshot(long now)
+    {
+        if (inBuffer.remaining() < 12) return;
+
+        int seq = inBuffer.getInt();
+        // No input past inputSeq was sent, so a higher echo is not ours
+        if (seq > inputSeq) return;
+        int baseTick = inBuffer.getInt();
+        int tick = inBuffer.getInt(inBuffer.position());
+        if (tick < 0) return;
+
+        // Late or repeated; the newer state already covers it
+        if (state != null && tick <= state.getTick()) return;
+
+        NetState base = null;
+        if (baseTick >= 0)
+        {
+            base = historyAt(baseTick);
+            if (base.getTick() != baseTick) return;
+        }
+        NetState next = historyAt(tick);
+        if (next == base) return;
+        try
+        {
+            next.read(inBuffer, base);
+        }
+        catch (BufferUnderflowException | IllegalArgumentException e)
+        {
+            // The slot may have held an older state still in use
+            next.invalidate();
+            if (previous == next) previous = null;
+            if (state == next) state = previous;
+            return;
+        }
+        previous = state;
+        state = next;
+        stateTime = now;
+
+        // Every input up to seq has now been seen to take effect, not just the newest
+        for (int s = Math.max(echoedSeq + 1, inputSeq - SENT_TIMES + 1); s <= seq; s++)
+        {
+            stats.latency(now - sentTimes[s % SENT_TIMES], now);
+        }
+        echoedSeq = Math.max(echoedSeq, seq);
+    }
+
+    private NetState historyAt(int tick)
+    {
+        return history[(tick / NetProtocol.SNAPSHOT_INTERVAL) % HISTORY];
+    }
+
+    private void send(long now) throws IOException
+    {
+        outBuffer.flip();
+        stats.sent(outBuffer.remaining(), now);
+        try
+        {
+            channel.write(outBuffer);
+        }
+        catch (IOException e)
+        {
+            // No server yet; HELLO is tried again
+        }
+    }
+
+    // Leaves the game; the server frees the slot
+    public void close()
+    {
+        try
+        {
+            if (!closed)
+            {
+                outBuffer.clear();
+                NetProtocol.writeHeader(outBuffer, NetProtocol.BYE);
+                send(System.nanoTime());
+            }
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            System.out.println("Closing the connection: " + e.getMessage());
+        }
+        closed = true;
+    }
+
+    public String describe()
+    {
+        if (state == null)
+        {
+            return slot < 0 ? "Connecting..." : "Player " + (slot + 1) + ", waiting for players (" + joined
+                + " of " + players + ")";
+        }
+        stats.roll(System.nanoTime());
+        return String.format("Player %d, tick %d, level %d, score %d: %s", slot + 1, state.getTick(),
+            state.getLevel(), state.getScore(), stats.describe());
+    }
+
+    // The newest state, null until the game has started
+    public NetState getState()
+    {
+        return state;
+    }
+
+    // The state before it, for drawing in between the two; null at first
+    public NetState getPreviousState()
+    {
+        return previous;
+    }
+
+    // System.nanoTime() when the newest state came in
+    public long getStateTime()
+    {
+        return stateTime;
+    }
+
+    public NetStats getStats()
+    {
+        return stats;
+    }
+
+    // From 0, -1 until the server has answered
+    public int getSlot()
+    {
+        return slot;
+    }
+
+    public int getJoined()
+    {
+        return joined;
+    }
+
+    public int getPlayers()
+    {
+        return players;
+    }
+
+    // After the server has said BYE or close() was called
+    public boolean isClosed()
+    {
+        return closed;
+    }
+}
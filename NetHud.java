@@ -0,0 +1,107 @@
+import greenfoot.*;
+import java.util.Arrays;
+
+// Hud for a networked game: the game numbers from the newest NetState on
+// the first line, and this client's traffic and input latency on the
+// second. Like Hud, it only redraws when a number it shows changes; the
+// traffic figures move once a second.
+public class NetHud extends Actor
+{
+    private final NetClient client;
+    private final GreenfootImage canvas = new GreenfootImage(800, 64);
+    private final int[] shown = new int[10];
+    private final int[] values = new int[10];
+
+    public NetHud(NetClient client)
+    {
+        this.client = client;
+        setImage(canvas);
+    }
+
+    public void act()
+    {
+        NetState state = client.getState();
+        NetStats stats = client.getStats();
+        stats.roll(System.nanoTime());
+
+        values[0] = state != null ? state.getLevel() : -1;
+        values[1] = state != null ? state.getLives() : -1;
+        values[2] = state != null ? state.getScore() : -1;
+        values[3] = state != null ? state.getStarsLeft() : -1;
+        values[4] = state != null ? state.getBossWeakPoints() : 0;
+        values[5] = state != null ? state.getBossSeconds() : 0;
+        values[6] = client.getSlot();
+        values[7] = (int) stats.getReceivedRate();
+        values[8] = (int) stats.getSentRate();
+        values[9] = Double.isNaN(stats.getLatencyMillis()) ? -1 : (int) Math.round(stats.getLatencyMillis());
+
+        if (!Arrays.equals(values, shown))
+        {
+            System.arraycopy(values, 0, shown, 0, values.length);
+            redraw();
+        }
+    }
+
+    private void redraw()
+    {
+        canvas.clear();
+        if (shown[0] >= 0)
+        {
+            int width = GlyphCache.textWidth("Level: ") + GlyphCache.numberWidth(shown[0])
+                + GlyphCache.textWidth("  Lives: ") + GlyphCache.numberWidth(shown[1])
+                + GlyphCache.textWidth("  Score: ") + GlyphCache.numberWidth(shown[2])
+                + GlyphCache.textWidth("  Stars Left: ") + GlyphCache.numberWidth(shown[3]);
+            if (shown[4] > 0)
+            {
+                width += GlyphCache.textWidth("  Weak Points: ") + GlyphCache.numberWidth(shown[4])
+                    + GlyphCache.textWidth(" (") + GlyphCache.numberWidth(shown[5]) + GlyphCache.textWidth(" s)");
+            }
+            int x = (canvas.getWidth() - width) / 2;
+            int y = 18;
+            x = GlyphCache.drawText(canvas, "Level: ", x, y);
+            x = GlyphCache.drawNumber(canvas, shown[0], x, y);
+            x = GlyphCache.drawText(canvas, "  Lives: ", x, y);
+            x = GlyphCache.drawNumber(canvas, shown[1], x, y);
+            x = GlyphCache.drawText(canvas, "  Score: ", x, y);
+            x = GlyphCache.drawNumber(canvas, shown[2], x, y);
+            x = GlyphCache.drawText(canvas, "  Stars Left: ", x, y);
+            x = GlyphCache.drawNumber(canvas, shown[3], x, y);
+            if (shown[4] > 0)
+            {
+                x = GlyphCache.drawText(canvas, "  Weak Points: ", x, y);
+                x = GlyphCache.drawNumber(canvas, shown[4], x, y);
+                x = GlyphCache.drawText(canvas, " (", x, y);
+                x = GlyphCache.drawNumber(canvas, shown[5], x, y);
+                GlyphCache.drawText(canvas, " s)", x, y);
+            }
+        }
+
+        if (shown[6] >= 0)
+        {
+            int width = GlyphCache.textWidth("Player ") + GlyphCache.numberWidth(shown[6] + 1)
+                + GlyphCache.textWidth("  Down: ") + GlyphCache.numberWidth(shown[7])
+                + GlyphCache.textWidth(" B/s  Up: ") + GlyphCache.numberWidth(shown[8])
+                + GlyphCache.textWidth(" B/s");
+            if (shown[9] >= 0)
+            {
+                width += GlyphCache.textWidth("  Latency: ") + GlyphCache.numberWidth(shown[9])
+                    + GlyphCache.textWidth(" ms");
+            }
+            int x = (canvas.getWidth() - width) / 2;
+            int y = 46;
+            x = GlyphCache.drawText(canvas, "Player ", x, y);
+            x = GlyphCache.drawNumber(canvas, shown[6] + 1, x, y);
+            x = GlyphCache.drawText(canvas, "  Down: ", x, y);
+            x = GlyphCache.drawNumber(canvas, shown[7], x, y);
+            x = GlyphCache.drawText(canvas, " B/s  Up: ", x, y);
+            x = GlyphCache.drawNumber(canvas, shown[8], x, y);
+            x = GlyphCache.drawText(canvas, " B/s", x, y);
+            if (shown[9] >= 0)
+            {
+                x = GlyphCache.drawText(canvas, "  Latency: ", x, y);
+                x = GlyphCache.drawNumber(canvas, shown[9], x, y);
+                GlyphCache.drawText(canvas, " ms", x, y);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import greenfoot.*;
+
+// Draws a networked game from its NetClient's states into one full-screen
+// image, the way EntityLayer draws one kind of SimEntity. Snapshots come 30
+// times a second, so every entity is drawn between its place in the last
+// two, reaching the newest one just as the next is due; anything that jumped
+// further than MAX_GLIDE (a respawn, a reused Ecs id) is drawn where it is.
+public class NetLayer extends Actor
+{
+    private static final int MAX_GLIDE = 64;
+    private static final long SNAPSHOT_NANOS = NetProtocol.SNAPSHOT_INTERVAL * NetProtocol.TICK_NANOS;
+
+    // Back to front
+    private static final int[] DRAW_ORDER = {
+        SimEntity.STAR, SimEntity.ENEMY, SimEntity.BOSS, SimEntity.WEAK_POINT,
+        SimEntity.PLAYER, SimEntity.BULLET, NetState.BOSS_BULLET
+    };
+
+    // Player two's ship is tinted, so each player can tell which one is theirs
+    private static final Color PLAYER_TWO_TINT = new Color(0, 120, 255, 110);
+
+    private final NetClient client;
+    private final GreenfootImage canvas;
+    private final RotatedSprite[] players = {
+        RotatedSprite.of("player", SpriteCache.get("player.png", 50, 50), 72),
+        RotatedSprite.of("playerTwo", SpriteCache.get("player.png", 50, 50, PLAYER_TWO_TINT), 72)
+    };
+    private final RotatedSprite star = EntityLayer.starSprite();
+    private final RotatedSprite enemy = Enemy.sprite();
+    private final RotatedSprite[] boss = { Boss.sprite(false), Boss.sprite(true) };
+    private final GreenfootImage[] weakPoint = { BossWeakPoint.image(false), BossWeakPoint.image(true) };
+    private final RotatedSprite[] bullets = EcsLayer.sprites();
+    private final RotatedSprite bossBullet = BossBulletLayer.sprite();
+    private int frame = 0;
+
+    public NetLayer(NetClient client, int width, int height)
+    {
+        this.client = client;
+        canvas = new GreenfootImage(width, height);
+        setImage(canvas);
+    }
+
+    public void act()
+    {
+        frame++;
+        canvas.clear();
+        NetState state = client.getState();
+        if (state == null) return;
+
+        NetState previous = client.getPreviousState();
+        int alpha = (int) Math.min(Motion.ONE, (System.nanoTime() - client.getStateTime()) * Motion.ONE / SNAPSHOT_NANOS);
+
+        for (int kind : DRAW_ORDER)
+        {
+            for (int i = 0; i < state.getCount(); i++)
+            {
+                if (state.getKind(i) != kind) continue;
+
+                int x = state.getX(i);
+                int y = state.getY(i);
+                int from = previous != null ? previous.indexOf(state.getKey(i)) : -1;
+                if (from >= 0 && Math.abs(previous.getX(from) - x) <= MAX_GLIDE
+                    && Math.abs(previous.getY(from) - y) <= MAX_GLIDE)
+                {
+                    x = previous.getX(from) + (x - previous.getX(from)) * alpha / Motion.ONE;
+                    y = previous.getY(from) + (y - previous.getY(from)) * alpha / Motion.ONE;
+                }
+
+                GreenfootImage image = imageOf(state, i);
+                if (image != null)
+                {
+                    canvas.drawImage(image, x - image.getWidth() / 2, y - image.getHeight() / 2);
+                }
+            }
+        }
+    }
+
+    // null for a frame that is not drawn
+    private GreenfootImage imageOf(NetState state, int i)
+    {
+        int rotation = state.getRotation(i);
+        int extra = state.getExtra(i);
+        switch (state.getKind(i))
+        {
+            case SimEntity.PLAYER:
+                // Immune ships blink, like Player does
+                if ((extra & NetState.IMMUNE) != 0 && (frame / 5) % 2 != 0) return null;
+                return players[Math.min(players.length - 1, extra & 0x0F)].frame(rotation);
+            case SimEntity.STAR:
+                return star.frame(rotation);
+            case SimEntity.ENEMY:
+                return enemy.frame(rotation);
+            case SimEntity.BOSS:
+                return boss[extra & 1].frame(rotation);
+            case SimEntity.WEAK_POINT:
+                return weakPoint[extra & 1];
+            case SimEntity.BULLET:
+                return extra < bullets.length ? bullets[extra].frame(rotation) : null;
+            case NetState.BOSS_BULLET:
+                return bossBullet.frame(rotation);
+            default:
+                return null;
+        }
+    }
+}
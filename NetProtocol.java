@@ -0,0 +1,87 @@
+import java.nio.ByteBuffer;
+
+// The wire format shared by NetServer and NetClient. Every datagram starts
+// with the magic, the version and a packet type:
+//   HELLO    client -> server, asks for a player slot (sent until the first SNAPSHOT)
+//   WELCOME  server -> client, byte slot, byte players joined, byte players wanted
+//   INPUT    client -> server, int input sequence, byte KEY_* bits, int newest
+//            snapshot tick received (-1 for none), the baseline to delta against
+//   SNAPSHOT server -> client, int last input sequence applied, int tick of
+//            the baseline (-1 for none), then a NetState delta (see NetState.write)
+//   BYE      either way, the client is leaving or the server is shutting down
+// Numbers inside a snapshot are varints: 7 bits a byte, low bits first.
+public final class NetProtocol
+{
+    public static final int MAGIC = 0x47574E54; // "GWNT"
+    public static final int VERSION = 1;
+    public static final int DEFAULT_PORT = 5150;
+
+    public static final byte HELLO = 1;
+    public static final byte WELCOME = 2;
+    public static final byte INPUT = 3;
+    public static final byte SNAPSHOT = 4;
+    public static final byte BYE = 5;
+
+    // The server ticks at 60 a second and sends a snapshot every
+    // SNAPSHOT_INTERVAL ticks, 30 a second
+    public static final long TICK_NANOS = 1000000000L / 60;
+    public static final int SNAPSHOT_INTERVAL = 2;
+
+    // Largest UDP payload; full snapshots of a crowded boss level stay well under it
+    public static final int MAX_PACKET = 65507;
+
+    // A client heard nothing from for this long is dropped
+    public static final long TIMEOUT_NANOS = 5000000000L;
+
+    private NetProtocol()
+    {
+    }
+
+    public static void writeHeader(ByteBuffer out, byte type)
+    {
+        out.putInt(MAGIC);
+        out.put((byte) VERSION);
+        out.put(type);
+    }
+
+    // The packet type, or -1 for anything that is not ours
+    public static int readHeader(ByteBuffer in)
+    {
+        if (in.remaining() < 6 || in.getInt() != MAGIC || in.get() != VERSION) return -1;
+        return in.get();
+    }
+
+    public static void writeVarint(ByteBuffer out, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    public static int readVarint(ByteBuffer in)
+    {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7)
+        {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Varint longer than 5 bytes");
+    }
+
+    // Signed values go through zigzag, so small steps either way take one byte
+    public static void writeSigned(ByteBuffer out, int value)
+    {
+        writeVarint(out, (value << 1) ^ (value >> 31));
+    }
+
+    public static int readSigned(ByteBuffer in)
+    {
+        int value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,400 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+
+// Authoritative co-op server: runs the only Simulation of a networked game
+// over UDP. Clients join with HELLO and get a player slot; once every slot
+// is taken the game starts and ticks at 60 a second with each client's
+// latest input. Every SNAPSHOT_INTERVAL ticks each client is sent a NetState
+// delta against the newest snapshot it has acknowledged, so a lost packet
+// only means the next one carries a little more. A client that goes quiet
+// for TIMEOUT_NANOS loses its slot to the next HELLO.
+// Usage: java NetServer [port] [players] [seed]
+public class NetServer implements Runnable
+{
+    // Snapshots kept as baselines, about two seconds' worth
+    private static final int HISTORY = 64;
+
+    private static class Client
+    {
+        final SocketAddress address;
+        final int slot;
+        final NetStats stats = new NetStats();
+        int input = 0;
+        int inputSeq = -1;
+        int ackTick = -1;
+        long lastHeard;
+
+        Client(SocketAddress address, int slot, long now)
+        {
+            this.address = address;
+            this.slot = slot;
+            this.lastHeard = now;
+        }
+    }
+
+    private final int port;
+    private final int players;
+    private final Simulation sim;
+    private final NetState[] history = new NetState[HISTORY];
+    private final Client[] clients;
+    private final int[] inputs;
+    private final ByteBuffer inBuffer = ByteBuffer.allocate(NetProtocol.MAX_PACKET);
+    private final ByteBuffer outBuffer = ByteBuffer.allocate(NetProtocol.MAX_PACKET);
+    private DatagramChannel channel;
+    private Selector selector;
+    private volatile boolean running = true;
+    // Set when run() ended on an error; the host's NetWorld shows it
+    private volatile String failure = null;
+    private boolean started = false;
+    private long lastReport = 0;
+
+    public NetServer(int port, int players, long seed)
+    {
+        this.port = port;
+        this.players = players;
+        this.sim = new Simulation(null, seed);
+        sim.setPlayerCount(players);
+        clients = new Client[players];
+        inputs = new int[players];
+        for (int i = 0; i < HISTORY; i++)
+        {
+            history[i] = new NetState();
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : NetProtocol.DEFAULT_PORT;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : Simulation.MAX_PLAYERS;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        NetServer server = new NetServer(port, players, seed);
+        server.open();
+        System.out.println("Serving " + players + " players on UDP port " + port + ", seed " + seed);
+        server.run();
+        if (server.isFailed()) System.exit(1);
+    }
+
+    // Binds the port; separate from run() so a caller learns of a port in use straight away
+    public void open() throws IOException
+    {
+        try
+        {
+            channel = DatagramChannel.open();
+            channel.bind(new InetSocketAddress(port));
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        }
+        catch (IOException e)
+        {
+            close();
+            throw e;
+        }
+    }
+
+    public void run()
+    {
+        try
+        {
+            long nextTick = System.nanoTime();
+            while (running)
+            {
+                receiveAll();
+
+                long now = System.nanoTime();
+                if (started)
+                {
+                    // Behind by more than a few ticks: skip them rather than racing to catch up
+                    if (now - nextTick > 5 * NetProtocol.TICK_NANOS) nextTick = now;
+                    while (now >= nextTick)
+                    {
+                        tick();
+                        nextTick += NetProtocol.TICK_NANOS;
+                    }
+                }
+                else
+                {
+                    nextTick = now;
+                }
+                dropSilentClients(now);
+                report(now);
+
+                long waitMillis = Math.max(1, (nextTick - System.nanoTime()) / 1000000);
+                selector.select(started ? waitMillis : 100);
+                selector.selectedKeys().clear();
+            }
+            broadcast(NetProtocol.BYE);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // Nobody joins this thread, so a throw would go unseen
+            failure = e.toString();
+            System.out.println("Network server failed: " + failure);
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    public boolean isFailed()
+    {
+        return failure != null;
+    }
+
+    // What ended the server, or null while it is fine
+    public String getFailure()
+    {
+        return failure;
+    }
+
+    // Ends run() at its next loop; the clients are told with BYE
+    public void stop()
+    {
+        running = false;
+        if (selector != null) selector.wakeup();
+    }
+
+    private void close()
+    {
+        try
+        {
+            if (selector != null) selector.close();
+            if (channel != null) channel.close();
+        }
+        catch (IOException e)
+        {
+            System.out.println("Closing the server: " + e.getMessage());
+        }
+    }
+
+    private void receiveAll() throws IOException
+    {
+        while (true)
+        {
+            inBuffer.clear();
+            SocketAddress from = channel.receive(inBuffer);
+            if (from == null) return;
+
+            inBuffer.flip();
+            long now = System.nanoTime();
+            int bytes = inBuffer.remaining();
+            switch (NetProtocol.readHeader(inBuffer))
+            {
+                case NetProtocol.HELLO:
+                    hello(from, now);
+                    break;
+                case NetProtocol.INPUT:
+                    input(from, now);
+                    break;
+                case NetProtocol.BYE:
+                    leave(from);
+                    break;
+                default:
+                    // Not ours, or not a packet a server takes
+                    continue;
+            }
+
+            Client client = find(from);
+            if (client != null) client.stats.received(bytes, now);
+        }
+    }
+
+    private void hello(SocketAddress from, long now) throws IOException
+    {
+        Client client = find(from);
+        if (client == null)
+        {
+            int slot = freeSlot();
+            if (slot < 0) return;
+
+            client = new Client(from, slot, now);
+            clients[slot] = client;
+            System.out.println("Player " + (slot + 1) + " joined from " + from);
+            if (!started && joined() == players)
+            {
+                started = true;
+                sim.startLevel(1);
+                System.out.println("All " + players + " players in, starting");
+            }
+        }
+        client.lastHeard = now;
+
+        // Answered every time, in case a WELCOME was lost
+        outBuffer.clear();
+        NetProtocol.writeHeader(outBuffer, NetProtocol.WELCOME);
+        outBuffer.put((byte) client.slot);
+        outBuffer.put((byte) joined());
+        outBuffer.put((byte) players);
+        send(client);
+    }
+
+    private void input(SocketAddress from, long now)
+    {
+        Client client = find(from);
+        if (client == null || inBuffer.remaining() < 9) return;
+
+        int seq = inBuffer.getInt();
+        int input = inBuffer.get() & 0xFF;
+        int ackTick = inBuffer.getInt();
+        client.lastHeard = now;
+
+        // Datagrams can overtake each other; older input is stale
+        if (seq > client.inputSeq)
+        {
+            client.inputSeq = seq;
+            client.input = input;
+        }
+        if (ackTick > client.ackTick)
+        {
+            client.ackTick = ackTick;
+        }
+    }
+
+    private void leave(SocketAddress from)
+    {
+        Client client = find(from);
+        if (client != null)
+        {
+            System.out.println("Player " + (client.slot + 1) + " left");
+            clients[client.slot] = null;
+        }
+    }
+
+    private void dropSilentClients(long now)
+    {
+        for (int slot = 0; slot < players; slot++)
+        {
+            Client client = clients[slot];
+            if (client != null && now - client.lastHeard > NetProtocol.TIMEOUT_NANOS)
+            {
+                System.out.println("Player " + (slot + 1) + " timed out");
+                clients[slot] = null;
+            }
+        }
+    }
+
+    private void tick() throws IOException
+    {
+        // An empty slot holds no keys
+        for (int slot = 0; slot < players; slot++)
+        {
+            inputs[slot] = clients[slot] != null ? clients[slot].input : 0;
+        }
+        sim.tick(inputs);
+
+        if (sim.getTickCount() % NetProtocol.SNAPSHOT_INTERVAL == 0)
+        {
+            NetState state = historyAt((int) sim.getTickCount());
+            state.capture(sim);
+            for (Client client : clients)
+            {
+                if (client != null) sendSnapshot(client, state);
+            }
+        }
+    }
+
+    private void sendSnapshot(Client client, NetState state) throws IOException
+    {
+        NetState base = client.ackTick >= 0 ? historyAt(client.ackTick) : null;
+        if (base != null && base.getTick() != client.ackTick)
+        {
+            // Acknowledged too long ago; start over from nothing
+            base = null;
+        }
+
+        outBuffer.clear();
+        NetProtocol.writeHeader(outBuffer, NetProtocol.SNAPSHOT);
+        outBuffer.putInt(client.inputSeq);
+        outBuffer.putInt(base != null ? base.getTick() : -1);
+        state.write(outBuffer, base);
+        send(client);
+    }
+
+    private NetState historyAt(int tick)
+    {
+        return history[(tick / NetProtocol.SNAPSHOT_INTERVAL) % HISTORY];
+    }
+
+    private void broadcast(byte type) throws IOException
+    {
+        for (Client client : clients)
+        {
+            if (client != null)
+            {
+                outBuffer.clear();
+                NetProtocol.writeHeader(outBuffer, type);
+                send(client);
+            }
+        }
+    }
+
+    private void send(Client client) throws IOException
+    {
+        outBuffer.flip();
+        int bytes = outBuffer.remaining();
+        channel.send(outBuffer, client.address);
+        client.stats.sent(bytes, System.nanoTime());
+    }
+
+    // Once a second, every client's traffic; the server cannot see their latency
+    private void report(long now)
+    {
+        if (now - lastReport < 1000000000L) return;
+        lastReport = now;
+
+        List<String> lines = new ArrayList<String>();
+        for (Client client : clients)
+        {
+            if (client != null)
+            {
+                NetStats stats = client.stats;
+                stats.roll(now);
+                lines.add(String.format("Player %d: down %.1f kB/s (%.0f pkt/s), up %.1f kB/s (%.0f pkt/s)",
+                    client.slot + 1, stats.getSentRate() / 1000, stats.getSentPacketRate(),
+                    stats.getReceivedRate() / 1000, stats.getReceivedPacketRate()));
+            }
+        }
+        if (started && !lines.isEmpty())
+        {
+            System.out.println("Tick " + sim.getTickCount() + ", level " + sim.getLevel() + ", "
+                + sim.getEntityCount() + " entities; " + String.join("; ", lines));
+        }
+    }
+
+    private Client find(SocketAddress address)
+    {
+        for (Client client : clients)
+        {
+            if (client != null && client.address.equals(address)) return client;
+        }
+        return null;
+    }
+
+    private int freeSlot()
+    {
+        for (int slot = 0; slot < players; slot++)
+        {
+            if (clients[slot] == null) return slot;
+        }
+        return -1;
+    }
+
+    private int joined()
+    {
+        int joined = 0;
+        for (Client client : clients)
+        {
+            if (client != null) joined++;
+        }
+        return joined;
+    }
+}
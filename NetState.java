@@ -0,0 +1,475 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+// What a network client sees of one server tick: the numbers the HUD shows
+// and every drawable thing, quantized to whole pixels and a byte of heading.
+// Entities are kept sorted by key (kind << 24 | id), so two states can be
+// compared in one merge walk. write() sends only what changed since a
+// baseline state the client already has, and read() rebuilds the full state
+// from that baseline; with no baseline everything is sent as new.
+// Swarm-mode enemies are not included.
+public class NetState
+{
+    // Boss bullets have no SimEntity kind of their own
+    public static final int BOSS_BULLET = SimEntity.KINDS;
+
+    public static final int GAME_OVER = 1;
+    public static final int GAME_WON = 2;
+    public static final int LEVEL_COMPLETE = 4;
+    public static final int BOSS_LEVEL = 8;
+    public static final int STARTING_LEVEL = 16;
+    public static final int BOSS_DEFEATED = 32;
+
+    // Extra byte: the slot of a player, plus IMMUNE; 1 for an open boss or weak point;
+    // the SpriteStore id of an Ecs entity
+    public static final int IMMUNE = 0x10;
+
+    // Header fields in the change mask
+    private static final int LEVEL = 1;
+    private static final int LIVES = 2;
+    private static final int SCORE = 4;
+    private static final int STARS_LEFT = 8;
+    private static final int FLAGS = 16;
+    private static final int PLAYER_COUNT = 32;
+    private static final int BOSS = 64;
+    private static final int COUNTDOWN = 128;
+
+    // Entity fields in the change mask; NEW marks an entity the baseline lacks
+    private static final int X = 1;
+    private static final int Y = 2;
+    private static final int ROTATION = 4;
+    private static final int EXTRA = 8;
+    private static final int NEW = 16;
+
+    private static final NetState EMPTY = new NetState();
+
+    private int tick = -1;
+    private int level;
+    private int lives;
+    private int score;
+    private int starsLeft;
+    private int flags;
+    private int playerCount;
+    // Weak points left and whole seconds until the boss changes mode, 0 with no boss
+    private int bossWeakPoints;
+    private int bossSeconds;
+    // Ticks left before the next level starts, while one is complete
+    private int countdown;
+
+    private int count = 0;
+    private int[] keys = new int[64];
+    private short[] x = new short[64];
+    private short[] y = new short[64];
+    private byte[] rotation = new byte[64];
+    private byte[] extra = new byte[64];
+    private long[] order = new long[64];
+    // sort() permutes into these and swaps them in, so a capture allocates nothing
+    private int[] sortedKeys = new int[64];
+    private short[] sortedX = new short[64];
+    private short[] sortedY = new short[64];
+    private byte[] sortedRotation = new byte[64];
+    private byte[] sortedExtra = new byte[64];
+
+    // Takes the game as it is between two ticks
+    public void capture(Simulation sim)
+    {
+        tick = (int) sim.getTickCount();
+        level = sim.getLevel();
+        lives = sim.getLives();
+        score = sim.getScore();
+        starsLeft = sim.getStarsLeft();
+        flags = (sim.isGameOver() ? GAME_OVER : 0) | (sim.isGameWon() ? GAME_WON : 0)
+            | (sim.isLevelComplete() ? LEVEL_COMPLETE : 0) | (sim.isBossLevel() ? BOSS_LEVEL : 0)
+            | (sim.isStartingLevel() ? STARTING_LEVEL : 0) | (sim.isShowingBossDefeated() ? BOSS_DEFEATED : 0);
+        playerCount = sim.getPlayerCount();
+        countdown = sim.isLevelComplete() ? 60 - sim.getLevelChangeTimer() : 0;
+
+        SimBoss boss = sim.getBoss();
+        bossWeakPoints = boss != null && boss.isAlive() ? boss.getWeakPointsRemaining() : 0;
+        bossSeconds = boss != null && boss.isAlive() ? (boss.getModeTicksLeft() + 59) / 60 : 0;
+
+        count = 0;
+        for (int kind = SimEntity.PLAYER; kind <= SimEntity.WEAK_POINT; kind++)
+        {
+            List<? extends SimEntity> entities = sim.getEntities(kind);
+            for (int i = 0; i < entities.size(); i++)
+            {
+                SimEntity entity = entities.get(i);
+                add(kind, entity.getNetId(), entity.getX(), entity.getY(), entity.getRotation(), extraOf(entity));
+            }
+        }
+
+        Ecs ecs = sim.getEcs();
+        PositionStore positions = ecs.getPositions();
+        SpriteStore sprites = ecs.getSprites();
+        for (int s = 0; s < sprites.size(); s++)
+        {
+            int id = sprites.entityAt(s);
+            int p = positions.indexOf(id);
+            if (p >= 0 && ecs.isAlive(id))
+            {
+                add(SimEntity.BULLET, id, positions.getX(p), positions.getY(p), sprites.getRotation(s),
+                    sprites.getSprite(s));
+            }
+        }
+
+        BossBulletStore bullets = sim.getBossBullets();
+        for (int i = 0; i < bullets.getCount(); i++)
+        {
+            add(BOSS_BULLET, bullets.getId(i), bullets.getX(i), bullets.getY(i), bullets.getRotation(i), 0);
+        }
+
+        sort();
+    }
+
+    private static int extraOf(SimEntity entity)
+    {
+        switch (entity.getKind())
+        {
+            case SimEntity.PLAYER:
+                SimPlayer player = (SimPlayer) entity;
+                return player.getSlot() | (player.isImmune() ? IMMUNE : 0);
+            case SimEntity.BOSS:
+                return ((SimBoss) entity).isVulnerable() ? 1 : 0;
+            case SimEntity.WEAK_POINT:
+                return ((SimWeakPoint) entity).isVulnerable() ? 1 : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private void add(int kind, int id, int px, int py, int degrees, int extraBits)
+    {
+        if (count == keys.length)
+        {
+            grow(count * 2);
+        }
+        keys[count] = kind << 24 | (id & 0xFFFFFF);
+        x[count] = (short) px;
+        y[count] = (short) py;
+        rotation[count] = (byte) ((((degrees % 360) + 360) % 360 * 256 + 180) / 360);
+        extra[count] = (byte) extraBits;
+        count++;
+    }
+
+    // Orders the entities by key; Ecs ids are reused, so they come out of order
+    private void sort()
+    {
+        boolean sorted = true;
+        for (int i = 1; i < count && sorted; i++)
+        {
+            sorted = keys[i - 1] < keys[i];
+        }
+        if (sorted) return;
+
+        for (int i = 0; i < count; i++)
+        {
+            order[i] = (long) keys[i] << 32 | i;
+        }
+        Arrays.sort(order, 0, count);
+
+        for (int i = 0; i < count; i++)
+        {
+            int from = (int) order[i];
+            sortedKeys[i] = keys[from];
+            sortedX[i] = x[from];
+            sortedY[i] = y[from];
+            sortedRotation[i] = rotation[from];
+            sortedExtra[i] = extra[from];
+        }
+
+        int[] swapKeys = keys;
+        keys = sortedKeys;
+        sortedKeys = swapKeys;
+        short[] swapX = x;
+        x = sortedX;
+        sortedX = swapX;
+        short[] swapY = y;
+        y = sortedY;
+        sortedY = swapY;
+        byte[] swapRotation = rotation;
+        rotation = sortedRotation;
+        sortedRotation = swapRotation;
+        byte[] swapExtra = extra;
+        extra = sortedExtra;
+        sortedExtra = swapExtra;
+    }
+
+    private void grow(int size)
+    {
+        keys = Arrays.copyOf(keys, size);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        rotation = Arrays.copyOf(rotation, size);
+        extra = Arrays.copyOf(extra, size);
+        order = Arrays.copyOf(order, size);
+        sortedKeys = new int[size];
+        sortedX = new short[size];
+        sortedY = new short[size];
+        sortedRotation = new byte[size];
+        sortedExtra = new byte[size];
+    }
+
+    // This state as changes from base, which the reader must hold; null sends it all
+    public void write(ByteBuffer out, NetState base)
+    {
+        if (base == null) base = EMPTY;
+
+        out.putInt(tick);
+        int mask = (level != base.level ? LEVEL : 0) | (lives != base.lives ? LIVES : 0)
+            | (score != base.score ? SCORE : 0) | (starsLeft != base.starsLeft ? STARS_LEFT : 0)
+            | (flags != base.flags ? FLAGS : 0) | (playerCount != base.playerCount ? PLAYER_COUNT : 0)
+            | (bossWeakPoints != base.bossWeakPoints || bossSeconds != base.bossSeconds ? BOSS : 0)
+            | (countdown != base.countdown ? COUNTDOWN : 0);
+        out.put((byte) mask);
+        if ((mask & LEVEL) != 0) NetProtocol.writeVarint(out, level);
+        if ((mask & LIVES) != 0) NetProtocol.writeVarint(out, lives);
+        if ((mask & SCORE) != 0) NetProtocol.writeVarint(out, score);
+        if ((mask & STARS_LEFT) != 0) NetProtocol.writeVarint(out, starsLeft);
+        if ((mask & FLAGS) != 0) out.put((byte) flags);
+        if ((mask & PLAYER_COUNT) != 0) out.put((byte) playerCount);
+        if ((mask & BOSS) != 0)
+        {
+            out.put((byte) bossWeakPoints);
+            NetProtocol.writeVarint(out, bossSeconds);
+        }
+        if ((mask & COUNTDOWN) != 0) NetProtocol.writeVarint(out, countdown);
+
+        // Key steps are at least 1, so 0 ends the list
+        int previousKey = -1;
+        int i = 0;
+        int j = 0;
+        while (i < count || j < base.count)
+        {
+            int key = i < count ? keys[i] : Integer.MAX_VALUE;
+            int baseKey = j < base.count ? base.keys[j] : Integer.MAX_VALUE;
+            if (key < baseKey)
+            {
+                NetProtocol.writeVarint(out, key - previousKey);
+                previousKey = key;
+                writeFields(out, i, NEW | X | Y | ROTATION | EXTRA, 0, 0);
+                i++;
+            }
+            else if (baseKey < key)
+            {
+                // Mask 0: gone since the baseline
+                NetProtocol.writeVarint(out, baseKey - previousKey);
+                previousKey = baseKey;
+                out.put((byte) 0);
+                j++;
+            }
+            else
+            {
+                int fields = (x[i] != base.x[j] ? X : 0) | (y[i] != base.y[j] ? Y : 0)
+                    | (rotation[i] != base.rotation[j] ? ROTATION : 0) | (extra[i] != base.extra[j] ? EXTRA : 0);
+                if (fields != 0)
+                {
+                    NetProtocol.writeVarint(out, key - previousKey);
+                    previousKey = key;
+                    writeFields(out, i, fields, base.x[j], base.y[j]);
+                }
+                i++;
+                j++;
+            }
+        }
+        NetProtocol.writeVarint(out, 0);
+    }
+
+    // Positions go as steps from the baseline, which are small for anything that moves
+    private void writeFields(ByteBuffer out, int i, int fields, int baseX, int baseY)
+    {
+        out.put((byte) fields);
+        if ((fields & X) != 0) NetProtocol.writeSigned(out, x[i] - baseX);
+        if ((fields & Y) != 0) NetProtocol.writeSigned(out, y[i] - baseY);
+        if ((fields & ROTATION) != 0) out.put(rotation[i]);
+        if ((fields & EXTRA) != 0) out.put(extra[i]);
+    }
+
+    // Replaces this state with the one written against base; base must be another object.
+    // A packet cut short throws BufferUnderflowException and a corrupt one
+    // IllegalArgumentException, leaving this state half-read: invalidate() it
+    public void read(ByteBuffer in, NetState base)
+    {
+        if (base == null) base = EMPTY;
+
+        tick = in.getInt();
+        int mask = in.get() & 0xFF;
+        level = (mask & LEVEL) != 0 ? NetProtocol.readVarint(in) : base.level;
+        lives = (mask & LIVES) != 0 ? NetProtocol.readVarint(in) : base.lives;
+        score = (mask & SCORE) != 0 ? NetProtocol.readVarint(in) : base.score;
+        starsLeft = (mask & STARS_LEFT) != 0 ? NetProtocol.readVarint(in) : base.starsLeft;
+        flags = (mask & FLAGS) != 0 ? in.get() & 0xFF : base.flags;
+        playerCount = (mask & PLAYER_COUNT) != 0 ? in.get() & 0xFF : base.playerCount;
+        if ((mask & BOSS) != 0)
+        {
+            bossWeakPoints = in.get() & 0xFF;
+            bossSeconds = NetProtocol.readVarint(in);
+        }
+        else
+        {
+            bossWeakPoints = base.bossWeakPoints;
+            bossSeconds = base.bossSeconds;
+        }
+        countdown = (mask & COUNTDOWN) != 0 ? NetProtocol.readVarint(in) : base.countdown;
+
+        count = 0;
+        int key = -1;
+        int j = 0;
+        for (int step = NetProtocol.readVarint(in); step != 0; step = NetProtocol.readVarint(in))
+        {
+            // Keys only go up, so a step past the last possible key was never written
+            if (step < 0 || key + step < key) throw new IllegalArgumentException("Entity key out of order");
+            key += step;
+            // Everything before the key is unchanged
+            while (j < base.count && base.keys[j] < key)
+            {
+                copy(base, j++);
+            }
+
+            int baseX = 0;
+            int baseY = 0;
+            byte baseRotation = 0;
+            byte baseExtra = 0;
+            if (j < base.count && base.keys[j] == key)
+            {
+                baseX = base.x[j];
+                baseY = base.y[j];
+                baseRotation = base.rotation[j];
+                baseExtra = base.extra[j];
+                j++;
+            }
+
+            int fields = in.get();
+            if (fields == 0) continue;
+
+            add(key, (short) ((fields & X) != 0 ? baseX + NetProtocol.readSigned(in) : baseX),
+                (short) ((fields & Y) != 0 ? baseY + NetProtocol.readSigned(in) : baseY),
+                (fields & ROTATION) != 0 ? in.get() : baseRotation,
+                (fields & EXTRA) != 0 ? in.get() : baseExtra);
+        }
+        while (j < base.count)
+        {
+            copy(base, j++);
+        }
+    }
+
+    private void copy(NetState base, int index)
+    {
+        add(base.keys[index], base.x[index], base.y[index], base.rotation[index], base.extra[index]);
+    }
+
+    private void add(int key, short px, short py, byte heading, byte extraBits)
+    {
+        if (count == keys.length)
+        {
+            grow(count * 2);
+        }
+        keys[count] = key;
+        x[count] = px;
+        y[count] = py;
+        rotation[count] = heading;
+        extra[count] = extraBits;
+        count++;
+    }
+
+    // Marks a state that failed to read as holding nothing; no tick matches it
+    public void invalidate()
+    {
+        tick = -1;
+        count = 0;
+    }
+
+    // Index of the entity with this key, or -1
+    public int indexOf(int key)
+    {
+        int index = Arrays.binarySearch(keys, 0, count, key);
+        return index >= 0 ? index : -1;
+    }
+
+    public int getTick()
+    {
+        return tick;
+    }
+
+    public int getLevel()
+    {
+        return level;
+    }
+
+    public int getLives()
+    {
+        return lives;
+    }
+
+    public int getScore()
+    {
+        return score;
+    }
+
+    public int getStarsLeft()
+    {
+        return starsLeft;
+    }
+
+    public boolean hasFlag(int flag)
+    {
+        return (flags & flag) != 0;
+    }
+
+    public int getPlayerCount()
+    {
+        return playerCount;
+    }
+
+    public int getBossWeakPoints()
+    {
+        return bossWeakPoints;
+    }
+
+    public int getBossSeconds()
+    {
+        return bossSeconds;
+    }
+
+    public int getCountdown()
+    {
+        return countdown;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    public int getKey(int index)
+    {
+        return keys[index];
+    }
+
+    public int getKind(int index)
+    {
+        return keys[index] >>> 24;
+    }
+
+    public int getX(int index)
+    {
+        return x[index];
+    }
+
+    public int getY(int index)
+    {
+        return y[index];
+    }
+
+    // Degrees, to within 1.5
+    public int getRotation(int index)
+    {
+        return (rotation[index] & 0xFF) * 360 / 256;
+    }
+
+    public int getExtra(int index)
+    {
+        return extra[index] & 0xFF;
+    }
+}
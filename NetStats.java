@@ -0,0 +1,136 @@
+// Traffic and latency of one network connection, as rates over the last
+// full second. Sent and received are from the side that owns it: the
+// server keeps one per client, so its sent rate is that client's download;
+// describe() reads them as a client. Latency is the time from a client
+// pressing keys to it seeing their effect.
+public class NetStats
+{
+    private static final long WINDOW_NANOS = 1000000000L;
+
+    private long windowStart = 0;
+    private long sentBytes = 0;
+    private long receivedBytes = 0;
+    private int sentPackets = 0;
+    private int receivedPackets = 0;
+    private long latencyTotal = 0;
+    private int latencySamples = 0;
+    private long latencyMax = 0;
+
+    // The last full window
+    private double sentRate = 0;
+    private double receivedRate = 0;
+    private double sentPacketRate = 0;
+    private double receivedPacketRate = 0;
+    private double latencyMillis = Double.NaN;
+    private double latencyMaxMillis = Double.NaN;
+
+    // Totals since the start
+    private long totalSent = 0;
+    private long totalReceived = 0;
+
+    public void sent(int bytes, long now)
+    {
+        roll(now);
+        sentBytes += bytes;
+        sentPackets++;
+        totalSent += bytes;
+    }
+
+    public void received(int bytes, long now)
+    {
+        roll(now);
+        receivedBytes += bytes;
+        receivedPackets++;
+        totalReceived += bytes;
+    }
+
+    public void latency(long nanos, long now)
+    {
+        roll(now);
+        latencyTotal += nanos;
+        latencySamples++;
+        latencyMax = Math.max(latencyMax, nanos);
+    }
+
+    // True when now has started a new window, i.e. once a second
+    public boolean roll(long now)
+    {
+        if (windowStart == 0)
+        {
+            windowStart = now;
+            return false;
+        }
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS) return false;
+
+        double seconds = elapsed / 1e9;
+        sentRate = sentBytes / seconds;
+        receivedRate = receivedBytes / seconds;
+        sentPacketRate = sentPackets / seconds;
+        receivedPacketRate = receivedPackets / seconds;
+        if (latencySamples > 0)
+        {
+            latencyMillis = latencyTotal / 1e6 / latencySamples;
+            latencyMaxMillis = latencyMax / 1e6;
+        }
+
+        windowStart = now;
+        sentBytes = 0;
+        receivedBytes = 0;
+        sentPackets = 0;
+        receivedPackets = 0;
+        latencyTotal = 0;
+        latencySamples = 0;
+        latencyMax = 0;
+        return true;
+    }
+
+    // Bytes a second
+    public double getSentRate()
+    {
+        return sentRate;
+    }
+
+    public double getReceivedRate()
+    {
+        return receivedRate;
+    }
+
+    public double getSentPacketRate()
+    {
+        return sentPacketRate;
+    }
+
+    public double getReceivedPacketRate()
+    {
+        return receivedPacketRate;
+    }
+
+    // Mean and worst over the last window, NaN before the first sample
+    public double getLatencyMillis()
+    {
+        return latencyMillis;
+    }
+
+    public double getLatencyMaxMillis()
+    {
+        return latencyMaxMillis;
+    }
+
+    public long getTotalSent()
+    {
+        return totalSent;
+    }
+
+    public long getTotalReceived()
+    {
+        return totalReceived;
+    }
+
+    public String describe()
+    {
+        return String.format("down %.1f kB/s (%.0f pkt/s), up %.1f kB/s (%.0f pkt/s), latency %s",
+            receivedRate / 1000, receivedPacketRate, sentRate / 1000, sentPacketRate,
+            Double.isNaN(latencyMillis) ? "-" : String.format("%.1f ms (max %.1f)", latencyMillis, latencyMaxMillis));
+    }
+}
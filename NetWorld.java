@@ -0,0 +1,97 @@
+import greenfoot.*;
+import java.io.IOException;
+
+// A co-op game played over the network. The game itself runs on a
+// NetServer, this one's own when hosting; the world only sends the keys held
+// each frame and draws the newest NetState it has received. Two players on
+// one machine each run a NetWorld (or a headless NetClient) against the same
+// server on localhost.
+public class NetWorld extends World
+{
+    private final NetClient client;
+    // Only when this world is the host
+    private final NetServer server;
+    private String message = null;
+
+    public NetWorld(String host, int port, NetServer server) throws IOException
+    {
+        super(800, 600, 1);
+        setBackground(SpriteCache.get("bg.png", getWidth(), getHeight()));
+        this.client = new NetClient(host, port);
+        this.server = server;
+
+        setPaintOrder(NetHud.class, NetLayer.class);
+        addObject(new NetLayer(client, getWidth(), getHeight()), getWidth() / 2, getHeight() / 2);
+        addObject(new NetHud(client), getWidth() / 2, 32);
+    }
+
+    public void act()
+    {
+        try
+        {
+            client.update(readInput());
+        }
+        catch (IOException e)
+        {
+            System.out.println("Network error: " + e.getMessage());
+            client.close();
+        }
+        showMessage();
+    }
+
+    // Same keys as GameWorld
+    private int readInput()
+    {
+        int input = 0;
+        if (Greenfoot.isKeyDown("w")) input |= Simulation.KEY_UP;
+        if (Greenfoot.isKeyDown("s")) input |= Simulation.KEY_DOWN;
+        if (Greenfoot.isKeyDown("a")) input |= Simulation.KEY_LEFT;
+        if (Greenfoot.isKeyDown("d")) input |= Simulation.KEY_RIGHT;
+        if (Greenfoot.isKeyDown("space")) input |= Simulation.KEY_FIRE;
+        if (Greenfoot.isKeyDown("r")) input |= Simulation.KEY_RESTART;
+        return input;
+    }
+
+    // The centre line, redrawn only when it changes
+    private void showMessage()
+    {
+        String next = message();
+        if (!next.equals(message))
+        {
+            message = next;
+            showText(next.isEmpty() ? null : next, getWidth() / 2, getHeight() / 2);
+        }
+    }
+
+    private String message()
+    {
+        NetState state = client.getState();
+        if (server != null && server.isFailed()) return "The server stopped: " + server.getFailure();
+        if (client.isClosed()) return "The game has ended";
+        if (state == null)
+        {
+            return client.getSlot() < 0 ? "Connecting..."
+                : "Waiting for players (" + client.getJoined() + " of " + client.getPlayers() + ")";
+        }
+        if (state.hasFlag(NetState.GAME_WON)) return "CONGRATULATIONS! YOU WON! Press R to play again";
+        if (state.hasFlag(NetState.GAME_OVER))
+        {
+            return "GAME OVER! Level " + state.getLevel() + ", score " + state.getScore() + ". Press R to restart";
+        }
+        if (state.hasFlag(NetState.STARTING_LEVEL))
+        {
+            return state.hasFlag(NetState.BOSS_LEVEL) ? "BOSS LEVEL " + state.getLevel()
+                : "LEVEL " + state.getLevel() + " - Collect all stars!";
+        }
+        if (state.hasFlag(NetState.LEVEL_COMPLETE)) return "LEVEL COMPLETE! Next level in " + state.getCountdown() + "...";
+        if (state.hasFlag(NetState.BOSS_DEFEATED)) return "BOSS DEFEATED!";
+        return "";
+    }
+
+    // A networked game cannot be paused: stopping leaves it, and a host ends it
+    public void stopped()
+    {
+        client.close();
+        if (server != null) server.stop();
+    }
+}
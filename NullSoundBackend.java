@@ -0,0 +1,25 @@
+// Silent backend for headless runs. Voices never report as playing, so each
+// merged trigger counts as one play in SoundManager's statistics.
+public class NullSoundBackend implements SoundBackend
+{
+    private static final Voice SILENT = new Voice()
+    {
+        public void play()
+        {
+        }
+
+        public void stop()
+        {
+        }
+
+        public boolean isPlaying()
+        {
+            return false;
+        }
+    };
+
+    public Voice load(String file)
+    {
+        return SILENT;
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Splits 0..count into chunks and runs them on a ForkJoinPool, waiting until
+// all are done. Small ranges, or no pool, just run on the calling thread, so
+// normal levels never pay for the hand-off.
+public class ParallelRange
+{
+    // Fewer items than this are not worth waking other threads for
+    public static final int THRESHOLD = 1024;
+    private static final int MIN_CHUNK = 256;
+
+    public interface Body
+    {
+        void run(int from, int to);
+    }
+
+    public static void run(ForkJoinPool pool, int count, Body body)
+    {
+        if (pool == null || count < THRESHOLD || pool.getParallelism() < 2)
+        {
+            body.run(0, count);
+            return;
+        }
+
+        // A few chunks per thread so stolen work evens out
+        int chunk = Math.max(MIN_CHUNK, count / (pool.getParallelism() * 4));
+        pool.invoke(new Split(body, 0, count, chunk));
+    }
+
+    private static class Split extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Body body;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        Split(Body body, int from, int to, int chunk)
+        {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        protected void compute()
+        {
+            if (to - from <= chunk)
+            {
+                body.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Split(body, from, middle, chunk), new Split(body, middle, to, chunk));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Where an entity is, in Motion fixed point and rounded to pixels, and where
+// it was when the tick started, for drawing in between ticks. Locations are
+// clamped to the world the same way SimEntity clamps them.
+public class PositionStore extends ComponentStore
+{
+    private static final int MAX_FIXED_X = Motion.toFixed(Simulation.WIDTH - 1);
+    private static final int MAX_FIXED_Y = Motion.toFixed(Simulation.HEIGHT - 1);
+
+    int[] fixedX = new int[64];
+    int[] fixedY = new int[64];
+    int[] previousFixedX = new int[64];
+    int[] previousFixedY = new int[64];
+    int[] x = new int[64];
+    int[] y = new int[64];
+
+    public void add(int id, int px, int py)
+    {
+        int slot = insert(id);
+        set(slot, Motion.toFixed(px), Motion.toFixed(py));
+        previousFixedX[slot] = fixedX[slot];
+        previousFixedY[slot] = fixedY[slot];
+    }
+
+    void set(int slot, int fx, int fy)
+    {
+        fx = Math.max(0, Math.min(MAX_FIXED_X, fx));
+        fy = Math.max(0, Math.min(MAX_FIXED_Y, fy));
+        fixedX[slot] = fx;
+        fixedY[slot] = fy;
+        x[slot] = Motion.toPixels(fx);
+        y[slot] = Motion.toPixels(fy);
+    }
+
+    // Called by Simulation as every tick starts
+    void savePositions()
+    {
+        System.arraycopy(fixedX, 0, previousFixedX, 0, size);
+        System.arraycopy(fixedY, 0, previousFixedY, 0, size);
+    }
+
+    public int getX(int slot)
+    {
+        return x[slot];
+    }
+
+    public int getY(int slot)
+    {
+        return y[slot];
+    }
+
+    public int getFixedX(int slot)
+    {
+        return fixedX[slot];
+    }
+
+    public int getFixedY(int slot)
+    {
+        return fixedY[slot];
+    }
+
+    // Same as SimEntity.getInterpolatedX()
+    public int getInterpolatedX(int slot, int alpha)
+    {
+        int from = previousFixedX[slot];
+        return Motion.toPixels(from + (((fixedX[slot] - from) * alpha) >> Motion.FIXED_SHIFT));
+    }
+
+    public int getInterpolatedY(int slot, int alpha)
+    {
+        int from = previousFixedY[slot];
+        return Motion.toPixels(from + (((fixedY[slot] - from) * alpha) >> Motion.FIXED_SHIFT));
+    }
+
+    protected void grow(int capacity)
+    {
+        fixedX = Arrays.copyOf(fixedX, capacity);
+        fixedY = Arrays.copyOf(fixedY, capacity);
+        previousFixedX = Arrays.copyOf(previousFixedX, capacity);
+        previousFixedY = Arrays.copyOf(previousFixedY, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+    }
+
+    protected void move(int from, int to)
+    {
+        fixedX[to] = fixedX[from];
+        fixedY[to] = fixedY[from];
+        previousFixedX[to] = previousFixedX[from];
+        previousFixedY[to] = previousFixedY[from];
+        x[to] = x[from];
+        y[to] = y[from];
+    }
+
+    // Snapshots are taken between ticks, so the previous location is not needed
+    protected void saveSlot(ByteBuffer out, int slot)
+    {
+        out.putInt(fixedX[slot]);
+        out.putInt(fixedY[slot]);
+    }
+
+    protected void loadSlot(ByteBuffer in, int slot)
+    {
+        set(slot, in.getInt(), in.getInt());
+        previousFixedX[slot] = fixedX[slot];
+        previousFixedY[slot] = fixedY[slot];
+    }
+}
@@ -0,0 +1,66 @@
+import greenfoot.*;
+
+// Profiler readout in the top-left corner, toggled with "p" in GameWorld.
+// Redrawn twice a second from the TickProfiler's averages, so it does not
+// cost a text render every frame.
+public class ProfilerOverlay extends Actor
+{
+    private static final int WIDTH = 330;
+    private static final int LINE = 16;
+    private static final int REFRESH_FRAMES = 30;
+
+    private final TickProfiler profiler;
+    private final GreenfootImage canvas = new GreenfootImage(WIDTH, LINE * (TickProfiler.SECTIONS + 4) + 8);
+    private final Font font = new Font("Monospaced", false, false, 12);
+    private final Color background = new Color(0, 0, 0, 170);
+    private int frames = 0;
+
+    public ProfilerOverlay(TickProfiler profiler)
+    {
+        this.profiler = profiler;
+        setImage(canvas);
+        redraw();
+    }
+
+    public void act()
+    {
+        if (++frames >= REFRESH_FRAMES)
+        {
+            frames = 0;
+            redraw();
+        }
+    }
+
+    private void redraw()
+    {
+        canvas.clear();
+        canvas.setColor(background);
+        canvas.fill();
+        canvas.setFont(font);
+        canvas.setColor(Color.WHITE);
+
+        int y = LINE;
+        canvas.drawString(String.format("frame  p50 %5.1f  p99 %5.1f  max %5.1f ms",
+            profiler.framePercentile(50) / 1e6, profiler.framePercentile(99) / 1e6,
+            profiler.framePercentile(100) / 1e6), 6, y);
+        y += LINE;
+        canvas.drawString(String.format("tick   p50 %5.0f  p99 %5.0f  max %5.0f us",
+            profiler.tickPercentile(50) / 1e3, profiler.tickPercentile(99) / 1e3,
+            profiler.tickPercentile(100) / 1e3), 6, y);
+        y += LINE;
+        canvas.drawString(String.format("%-10s %6s %6s %8s %7s", "class", "calls", "live", "us/tick", "B/tick"), 6, y);
+
+        for (int s = 0; s < TickProfiler.SECTIONS; s++)
+        {
+            y += LINE;
+            canvas.drawString(String.format("%-10s %6d %6d %8.1f %7.0f", TickProfiler.getName(s),
+                profiler.getLastCalls(s), profiler.getLastInstances(s),
+                profiler.getAverageNanos(s) / 1e3, profiler.getAverageAllocated(s)), 6, y);
+        }
+
+        y += LINE;
+        canvas.drawString(String.format("%-10s %6s %6d %8.1f %7.0f", "Tick", "",
+            profiler.getLastEntityCount(), profiler.getAverageTickNanos() / 1e3,
+            profiler.getAverageTickAllocated()), 6, y);
+    }
+}
@@ -0,0 +1,46 @@
+// Player bullets, after MovementSystem has moved them and every enemy has
+// acted: each one kills the first enemy (object or swarm) it touched
+// anywhere along this tick's move, so a fast bullet cannot skip over a
+// target, is used up by a weak point, destroying it while it is open, and is
+// gone once it reaches the edge of the world. This is the only place player
+// bullets hit anything, and every test goes through the SpatialHash or the
+// swarm grid.
+public final class ProjectileSystem
+{
+    private ProjectileSystem()
+    {
+    }
+
+    public static void run(Simulation sim, Ecs ecs)
+    {
+        ColliderStore colliders = ecs.getColliders();
+        PositionStore positions = ecs.getPositions();
+        for (int c = 0; c < colliders.size; c++)
+        {
+            int id = colliders.entities[c];
+            if (colliders.layer[c] != ColliderStore.PLAYER_SHOT || !ecs.isAlive(id)) continue;
+
+            int p = positions.indexOf(id);
+            int fromX = Motion.toPixels(positions.previousFixedX[p]);
+            int fromY = Motion.toPixels(positions.previousFixedY[p]);
+            int x = positions.x[p];
+            int y = positions.y[p];
+            int width = colliders.width[c];
+            int height = colliders.height[c];
+
+            if (sim.destroyEnemyAlong(fromX, fromY, x, y, width, height))
+            {
+                ecs.destroy(id);
+                sim.playSound(SoundManager.HIT);
+            }
+            else if (sim.shootWeakPointAlong(fromX, fromY, x, y, width, height))
+            {
+                ecs.destroy(id);
+            }
+            else if (x <= 0 || y <= 0 || x >= Simulation.WIDTH - 1 || y >= Simulation.HEIGHT - 1)
+            {
+                ecs.destroy(id);
+            }
+        }
+    }
+}
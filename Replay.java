@@ -0,0 +1,245 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// A recorded game: the seed and settings the Simulation started with, plus
+// the KEY_* bits of every tick. Input is held for many ticks at a time, so it
+// is stored as runs of (input, length). Since every random number comes from
+// the seeded generator, feeding the inputs back into a Simulation built by
+// createSimulation() re-simulates the game exactly; the checksum taken when
+// recording stopped proves it. A recording that begins mid-game, e.g. after a
+// rewind, carries the snapshot it starts from instead of a start level.
+public class Replay
+{
+    private static final int MAGIC = 0x47575250; // "GWRP"
+    private static final int VERSION = 6;
+
+    private final long seed;
+    private final int startLevel;
+    private final int swarmSize;
+    private byte[] start = null;
+
+    private byte[] runInputs = new byte[64];
+    private int[] runLengths = new int[64];
+    private int runCount = 0;
+    private long tickCount = 0;
+    private long checksum = 0;
+
+    // Playback position
+    private int run = 0;
+    private int ticksIntoRun = 0;
+
+    public Replay(long seed, int startLevel, int swarmSize)
+    {
+        this.seed = seed;
+        this.startLevel = startLevel;
+        this.swarmSize = swarmSize;
+    }
+
+    // Records on from the game's current state
+    public static Replay startingFrom(Simulation sim)
+    {
+        Replay replay = new Replay(sim.getSeed(), sim.getLevel(), sim.getSwarmSize());
+        replay.start = sim.snapshot();
+        return replay;
+    }
+
+    // A Simulation set up exactly like the recorded one, with its first level started
+    public Simulation createSimulation(SimListener listener)
+    {
+        return createSimulation(listener, null);
+    }
+
+    // Same, taking its levels from a cache for this replay's seed
+    public Simulation createSimulation(SimListener listener, LevelCache layouts)
+    {
+        Simulation sim = new Simulation(listener, seed);
+        if (layouts != null) sim.setLevelCache(layouts);
+        sim.setSwarmSize(swarmSize);
+        if (start != null)
+        {
+            sim.restoreSnapshot(start);
+        }
+        else
+        {
+            sim.startLevel(startLevel);
+        }
+        return sim;
+    }
+
+    public void record(int input)
+    {
+        if (runCount > 0 && runInputs[runCount - 1] == (byte) input && runLengths[runCount - 1] < Integer.MAX_VALUE)
+        {
+            runLengths[runCount - 1]++;
+        }
+        else
+        {
+            addRun((byte) input, 1);
+        }
+        tickCount++;
+    }
+
+    private void addRun(byte input, int length)
+    {
+        if (runCount == runInputs.length)
+        {
+            runInputs = Arrays.copyOf(runInputs, runCount * 2);
+            runLengths = Arrays.copyOf(runLengths, runCount * 2);
+        }
+        runInputs[runCount] = input;
+        runLengths[runCount] = length;
+        runCount++;
+    }
+
+    // Marks the end of the recording with the state it reached
+    public void finish(Simulation sim)
+    {
+        checksum = sim.checksum();
+    }
+
+    public boolean hasNext()
+    {
+        return run < runCount;
+    }
+
+    public int nextInput()
+    {
+        int input = runInputs[run];
+        if (++ticksIntoRun == runLengths[run])
+        {
+            run++;
+            ticksIntoRun = 0;
+        }
+        return input;
+    }
+
+    public void rewind()
+    {
+        run = 0;
+        ticksIntoRun = 0;
+    }
+
+    // True if a Simulation that played the whole replay ended where the recording did
+    public boolean matches(Simulation sim)
+    {
+        return sim.checksum() == checksum;
+    }
+
+    public void save(String file) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeInt(startLevel);
+            out.writeInt(swarmSize);
+            out.writeLong(tickCount);
+            out.writeLong(checksum);
+            out.writeInt(start != null ? start.length : 0);
+            if (start != null) out.write(start);
+            out.writeInt(runCount);
+            for (int i = 0; i < runCount; i++)
+            {
+                out.writeByte(runInputs[i]);
+                writeVarInt(out, runLengths[i]);
+            }
+        }
+    }
+
+    public static Replay load(String file) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            // Older games cannot replay: levels were laid out differently before
+            // version 3, and hits took effect mid-tick before version 4
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION)
+            {
+                throw new IOException(file + " is not a version " + VERSION + " replay");
+            }
+
+            Replay replay = new Replay(in.readLong(), in.readInt(), in.readInt());
+            long ticks = in.readLong();
+            replay.checksum = in.readLong();
+
+            int startLength = in.readInt();
+            if (startLength > 0)
+            {
+                replay.start = new byte[startLength];
+                in.readFully(replay.start);
+            }
+
+            int runs = in.readInt();
+            for (int i = 0; i < runs; i++)
+            {
+                byte input = in.readByte();
+                int length = readVarInt(in);
+                if (length <= 0)
+                {
+                    throw new IOException("Bad run length in " + file);
+                }
+                replay.addRun(input, length);
+                replay.tickCount += length;
+            }
+            if (replay.tickCount != ticks)
+            {
+                throw new IOException(file + " is truncated");
+            }
+            return replay;
+        }
+    }
+
+    // Run lengths are mostly small: 7 bits per byte, high bit set on all but the last
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Run length too long");
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public int getStartLevel()
+    {
+        return startLevel;
+    }
+
+    public int getSwarmSize()
+    {
+        return swarmSize;
+    }
+
+    public long getTickCount()
+    {
+        return tickCount;
+    }
+
+    public long getChecksum()
+    {
+        return checksum;
+    }
+}
@@ -0,0 +1,65 @@
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+// Plays a recorded game back with no window, checks that it ended in the
+// recorded state, and reports the speed. The same file always produces the
+// same work, so replays make repeatable performance workloads.
+// Usage: java ReplayRunner replayFile [repeats]
+// With -Dprofile=file.csv (or .json) the last run is profiled into that file,
+// and -Dthreads=N prepares large updates on N threads.
+public class ReplayRunner
+{
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 0)
+        {
+            System.out.println("Usage: java ReplayRunner replayFile [repeats]");
+            return;
+        }
+        Replay replay = Replay.load(args[0]);
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        System.out.println("Replay:        " + args[0] + ", " + replay.getTickCount() + " ticks, seed "
+            + replay.getSeed() + ", level " + replay.getStartLevel() + ", swarm " + replay.getSwarmSize());
+
+        ForkJoinPool pool = HeadlessRunner.updatePool();
+        String profileFile = System.getProperty("profile");
+        TickProfiler profiler = null;
+
+        boolean allMatched = true;
+        for (int r = 1; r <= repeats; r++)
+        {
+            replay.rewind();
+            Simulation sim = replay.createSimulation(null);
+            sim.setUpdatePool(pool);
+            if (profileFile != null && r == repeats)
+            {
+                profiler = new TickProfiler();
+                sim.setProfiler(profiler);
+            }
+
+            long start = System.nanoTime();
+            while (replay.hasNext())
+            {
+                sim.tick(replay.nextInput());
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            boolean matched = replay.matches(sim);
+            allMatched &= matched;
+            System.out.println("Run " + r + ":         " + String.format("%.3f s, %.0f ticks/second, ", seconds,
+                replay.getTickCount() / seconds) + (matched ? "matches" : "DIVERGED"));
+        }
+
+        if (profiler != null)
+        {
+            profiler.save(profileFile);
+            System.out.println("Profile:       " + profileFile);
+        }
+
+        if (!allMatched)
+        {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import greenfoot.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// A sprite pre-rotated into a fixed number of frames and shared by every
+// actor that shows it. An actor that turns then only swaps images, so
+// Greenfoot never transforms a sprite while drawing. Each frame is made
+// through SpriteCache the first time an angle is needed (or all at once by
+// bakeAll()), on a square canvas large enough for any angle.
+public class RotatedSprite
+{
+    private static final ConcurrentHashMap<String, RotatedSprite> sprites =
+        new ConcurrentHashMap<String, RotatedSprite>();
+
+    private final String name;
+    private final GreenfootImage source;
+    private final int steps;
+    private final int size;
+    // Filled in by whichever thread asks first, see AssetPreloader
+    private final AtomicReferenceArray<GreenfootImage> frames;
+
+    private RotatedSprite(String name, GreenfootImage source, int steps)
+    {
+        this.name = name;
+        this.source = source;
+        this.steps = steps;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        this.size = (int) Math.ceil(Math.sqrt(width * width + height * height));
+        this.frames = new AtomicReferenceArray<GreenfootImage>(steps);
+    }
+
+    // The sprite for a name is made once; later calls return it whatever source they pass
+    public static RotatedSprite of(String name, GreenfootImage source, int steps)
+    {
+        String key = name + "/" + steps;
+        RotatedSprite sprite = sprites.get(key);
+        if (sprite == null)
+        {
+            sprites.putIfAbsent(key, new RotatedSprite(name, source, steps));
+            sprite = sprites.get(key);
+        }
+        return sprite;
+    }
+
+    // The frame nearest the rotation, in degrees
+    public GreenfootImage frame(int rotation)
+    {
+        int index = (Motion.normalize(rotation) * steps + 180) / 360 % steps;
+        GreenfootImage frame = frames.get(index);
+        if (frame == null)
+        {
+            final int angle = index * 360 / steps;
+            frame = SpriteCache.painted(name + "@" + angle + "/" + steps, size, size, img -> {
+                img.drawImage(source, (size - source.getWidth()) / 2, (size - source.getHeight()) / 2);
+                img.rotate(angle);
+            });
+            frames.set(index, frame);
+        }
+        return frame;
+    }
+
+    public void bakeAll()
+    {
+        for (int i = 0; i < steps; i++)
+        {
+            frame(i * 360 / steps);
+        }
+    }
+
+    public int getSteps()
+    {
+        return steps;
+    }
+}
@@ -0,0 +1,40 @@
+// The game's one source of randomness (SplitMix64). The same seed gives the
+// same numbers on every JVM, and unlike java.util.Random there is no atomic
+// update per call and the whole state is a single long.
+public class SeededRandom
+{
+    private long state;
+
+    public SeededRandom(long seed)
+    {
+        state = seed;
+    }
+
+    public long nextLong()
+    {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // 0 to bound - 1, from the high 32 bits scaled by multiplication
+    public int nextInt(int bound)
+    {
+        if (bound <= 0)
+        {
+            throw new IllegalArgumentException("Bound must be positive: " + bound);
+        }
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    public long getState()
+    {
+        return state;
+    }
+
+    public void setState(long state)
+    {
+        this.state = state;
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.List;
+
+// A bot that heads for the nearest star, firing the whole time. Once a boss
+// level has no stars left it keeps its distance from the boss, and while the
+// weak points are open it hovers at firing range from the nearest one,
+// shooting whenever it steps towards it. A boss bullet closing in comes first:
+// the bot steps sideways out of its line. It wanders like WanderPolicy when
+// there is nothing to go for.
+public class SeekPolicy implements InputPolicy
+{
+    // Close enough on an axis to stop moving along it
+    private static final int DEAD_ZONE = 4;
+    private static final int FIRING_RANGE = 200;
+    // Boss bullets nearer than this, and heading this way, are dodged
+    private static final int DANGER_RANGE = 120;
+
+    private final WanderPolicy wander;
+
+    public SeekPolicy(long seed)
+    {
+        wander = new WanderPolicy(seed);
+    }
+
+    public int nextInput(Simulation sim)
+    {
+        // Always stepped, so falling back to it picks up a steady walk
+        int wandering = wander.nextInput(sim);
+
+        SimPlayer player = sim.getPlayer();
+        if (player == null) return wandering;
+
+        SimEntity star = nearest(player, sim.getEntities(SimEntity.STAR));
+        if (star != null)
+        {
+            return Simulation.KEY_FIRE | towards(player, star.getX(), star.getY());
+        }
+
+        SimBoss boss = sim.getBoss();
+        if (boss == null || !boss.isAlive()) return wandering;
+
+        int dodge = dodge(player, sim.getBossBullets());
+        if (dodge != 0) return dodge;
+
+        SimEntity weakPoint = boss.isVulnerable() ? nearest(player, sim.getEntities(SimEntity.WEAK_POINT)) : null;
+        if (weakPoint == null)
+        {
+            return away(player, boss.getX(), boss.getY());
+        }
+        // Only steps towards the target fire, so every shot flies at it
+        if (distance(player, weakPoint) > FIRING_RANGE)
+        {
+            return Simulation.KEY_FIRE | towards(player, weakPoint.getX(), weakPoint.getY());
+        }
+        return away(player, boss.getX(), boss.getY());
+    }
+
+    private static int towards(SimEntity player, int x, int y)
+    {
+        int input = 0;
+        int dx = x - player.getX();
+        int dy = y - player.getY();
+        if (dx > DEAD_ZONE) input |= Simulation.KEY_RIGHT;
+        else if (dx < -DEAD_ZONE) input |= Simulation.KEY_LEFT;
+        if (dy > DEAD_ZONE) input |= Simulation.KEY_DOWN;
+        else if (dy < -DEAD_ZONE) input |= Simulation.KEY_UP;
+        return input;
+    }
+
+    // Sideways from the nearest boss bullet that is coming at the player, or 0
+    private static int dodge(SimEntity player, BossBulletStore bullets)
+    {
+        int threat = -1;
+        double threatDistance = DANGER_RANGE;
+        double sideX = 0;
+        double sideY = 0;
+        for (int i = 0; i < bullets.getCount(); i++)
+        {
+            double dx = player.getX() - bullets.getX(i);
+            double dy = player.getY() - bullets.getY(i);
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            double heading = Math.toRadians(bullets.getRotation(i));
+            double vx = Math.cos(heading);
+            double vy = Math.sin(heading);
+            if (distance < threatDistance && vx * dx + vy * dy > 0)
+            {
+                threat = i;
+                threatDistance = distance;
+                // Perpendicular to the flight, on the side the player already is
+                double side = vx * dy - vy * dx >= 0 ? 1 : -1;
+                sideX = -vy * side;
+                sideY = vx * side;
+            }
+        }
+        if (threat < 0) return 0;
+
+        return towards(player, player.getX() + (int) Math.round(sideX * 50),
+                       player.getY() + (int) Math.round(sideY * 50));
+    }
+
+    // Towards the point mirrored through the player, falling back to the
+    // middle of the screen once a wall is in the way
+    private static int away(SimEntity player, int x, int y)
+    {
+        int input = towards(player, 2 * player.getX() - x, 2 * player.getY() - y);
+        if (player.getX() < 40 || player.getX() > Simulation.WIDTH - 40
+            || player.getY() < 40 || player.getY() > Simulation.HEIGHT - 80)
+        {
+            input = towards(player, Simulation.WIDTH / 2, Simulation.HEIGHT / 2);
+        }
+        return input;
+    }
+
+    private static double distance(SimEntity a, SimEntity b)
+    {
+        double dx = a.getX() - b.getX();
+        double dy = a.getY() - b.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static SimEntity nearest(SimEntity player, List<? extends SimEntity> entities)
+    {
+        SimEntity best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < entities.size(); i++)
+        {
+            SimEntity entity = entities.get(i);
+            if (!entity.isAlive()) continue;
+
+            long dx = entity.getX() - player.getX();
+            long dy = entity.getY() - player.getY();
+            long distance = dx * dx + dy * dy;
+            if (distance < bestDistance)
+            {
+                best = entity;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+}
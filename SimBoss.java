@@ -0,0 +1,279 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+public class SimBoss extends SimEntity
+{
+    // Area the boss stays inside, in Motion fixed point
+    private static final int MIN_X = Motion.toFixed(50);
+    private static final int MAX_X = Motion.toFixed(Simulation.WIDTH - 50);
+    private static final int MIN_Y = Motion.toFixed(50);
+    private static final int MAX_Y = Motion.toFixed(Simulation.HEIGHT - 100);
+
+    // Boss stats that scale with level
+    private int bossLevel;
+    private int speed;
+    private int bulletDamage;
+    private int moveSpeed;
+
+    // Movement
+    private int direction;
+    private int changeDirectionTimer = 0;
+
+    // Shooting: the patterns run one after another, with a rest between them
+    private BulletPattern[] patterns;
+    private int patternIndex = 0;
+    private int volley = 0;
+    private int patternHeading = 0;
+    private int shootTimer = 0;
+    private int shootDelay;
+
+    // Mortal mode: Ecs id of its BossPhaseStore entry, which BossPhaseSystem advances
+    private int phase = -1;
+
+    // Weak points
+    private ArrayList<SimWeakPoint> weakPoints = new ArrayList<SimWeakPoint>();
+    private int weakPointsRemaining = 3;
+
+    public SimBoss(int level, int direction, DifficultyTable difficulty)
+    {
+        super(BOSS, 100, 100);
+        this.bossLevel = level;
+
+        // Scale stats based on boss level
+        int bossIteration = level / 5;
+        this.speed = 1 + bossIteration;
+        this.moveSpeed = Motion.toFixed(difficulty.getBossMoveSpeed(level));
+        this.bulletDamage = 1;
+        this.shootDelay = difficulty.getBossShootDelay(level);
+        this.patterns = BulletPattern.forBoss(level, difficulty.getBossBulletSpeed(level));
+
+        this.direction = direction;
+    }
+
+    void createPhase()
+    {
+        phase = sim.addBossPhase(bossLevel);
+    }
+
+    void createWeakPoints()
+    {
+        int[] angles = {0, 120, 240};
+        int radius = 60;
+
+        for (int i = 0; i < 3; i++)
+        {
+            SimWeakPoint wp = new SimWeakPoint(this, i, radius, angles[i]);
+            weakPoints.add(wp);
+            sim.addWeakPoint(wp, getX(), getY());
+        }
+    }
+
+    public void act()
+    {
+        if (weakPointsRemaining <= 0)
+        {
+            defeatBoss();
+            return;
+        }
+
+        handleMortalMode();
+        move();
+        shoot();
+        checkPlayerCollision();
+        updateWeakPointPositions();
+    }
+
+    // Opens or closes the weak points on the tick the phase switched mode
+    private void handleMortalMode()
+    {
+        BossPhaseStore phases = sim.getEcs().getBossPhases();
+        int slot = phases.indexOf(phase);
+        if (slot < 0 || !phases.hasSwitched(slot)) return;
+
+        boolean vulnerable = phases.isVulnerable(slot);
+        if (vulnerable)
+        {
+            sim.playSound(SoundManager.RESPAWN);
+        }
+
+        for (SimWeakPoint wp : weakPoints)
+        {
+            if (!wp.isDestroyed())
+            {
+                wp.setVulnerable(vulnerable);
+            }
+        }
+    }
+
+    private void move()
+    {
+        changeDirectionTimer++;
+
+        if (changeDirectionTimer > 90)
+        {
+            direction = sim.random(360);
+            changeDirectionTimer = 0;
+        }
+
+        setRotation(direction);
+        int newX = getFixedX() + Motion.stepX(moveSpeed, direction);
+        int newY = getFixedY() + Motion.stepY(moveSpeed, direction);
+        int pixelX = Motion.toPixels(newX);
+        int pixelY = Motion.toPixels(newY);
+
+        if (pixelX <= 50 || pixelX >= Simulation.WIDTH - 50)
+        {
+            direction = 180 - direction;
+            if (direction < 0) direction += 360;
+        }
+        if (pixelY <= 50 || pixelY >= Simulation.HEIGHT - 100)
+        {
+            direction = 360 - direction;
+        }
+
+        newX = Math.max(MIN_X, Math.min(MAX_X, newX));
+        newY = Math.max(MIN_Y, Math.min(MAX_Y, newY));
+
+        setFixedLocation(newX, newY);
+    }
+
+    private void shoot()
+    {
+        shootTimer++;
+
+        BulletPattern pattern = patterns[patternIndex];
+        int delay = volley == 0 ? shootDelay : pattern.getInterval();
+        if (shootTimer < delay) return;
+        shootTimer = 0;
+
+        if (pattern.isAimed())
+        {
+            SimPlayer player = sim.getNearestPlayer(getX(), getY());
+            patternHeading = player != null
+                ? Motion.headingTo(player.getX() - getX(), player.getY() - getY())
+                : sim.random(360);
+        }
+        else if (volley == 0)
+        {
+            patternHeading = sim.random(360);
+        }
+
+        pattern.fire(sim.getBossBullets(), this, patternHeading, volley, bulletDamage);
+        sim.playSound(SoundManager.FIRE);
+
+        if (++volley >= pattern.getVolleys())
+        {
+            volley = 0;
+            patternIndex = (patternIndex + 1) % patterns.length;
+        }
+    }
+
+    private void checkPlayerCollision()
+    {
+        SimPlayer player = getOneIntersectingObject(SimPlayer.class);
+        if (player != null)
+        {
+            sim.playerHit(player.getSlot());
+        }
+    }
+
+    private void updateWeakPointPositions()
+    {
+        for (SimWeakPoint wp : weakPoints)
+        {
+            wp.updatePosition();
+        }
+    }
+
+    // The boss level is written by Simulation, since the constructor needs it;
+    // weak points are restored separately and handed back through addWeakPoint(),
+    // and the phase itself comes back with the Ecs
+    protected void save(ByteBuffer out)
+    {
+        super.save(out);
+        out.putShort((short) direction);
+        out.putShort((short) changeDirectionTimer);
+        out.put((byte) patternIndex);
+        out.putShort((short) volley);
+        out.putShort((short) patternHeading);
+        out.putShort((short) shootTimer);
+        out.putShort((short) phase);
+        out.put((byte) weakPointsRemaining);
+    }
+
+    protected void load(ByteBuffer in)
+    {
+        super.load(in);
+        direction = in.getShort();
+        changeDirectionTimer = in.getShort();
+        patternIndex = in.get();
+        volley = in.getShort();
+        patternHeading = in.getShort();
+        shootTimer = in.getShort();
+        phase = in.getShort();
+        weakPointsRemaining = in.get();
+    }
+
+    // Destroyed weak points are not restored; every use of the list skips them anyway
+    void addWeakPoint(SimWeakPoint weakPoint)
+    {
+        weakPoints.add(weakPoint);
+    }
+
+    // The phase goes with the boss
+    void detach()
+    {
+        sim.getEcs().destroy(phase);
+        super.detach();
+    }
+
+    public void weakPointDestroyed()
+    {
+        weakPointsRemaining--;
+
+        if (weakPointsRemaining <= 0)
+        {
+            defeatBoss();
+        }
+    }
+
+    private void defeatBoss()
+    {
+        for (SimWeakPoint wp : weakPoints)
+        {
+            if (!wp.isDestroyed())
+            {
+                sim.remove(wp);
+            }
+        }
+
+        sim.playSound(SoundManager.KUHA);
+        sim.bossDefeated(bossLevel);
+        sim.remove(this);
+    }
+
+    public boolean isVulnerable()
+    {
+        BossPhaseStore phases = sim != null ? sim.getEcs().getBossPhases() : null;
+        int slot = phases != null ? phases.indexOf(phase) : -1;
+        return slot >= 0 && phases.isVulnerable(slot);
+    }
+
+    public int getBossLevel()
+    {
+        return bossLevel;
+    }
+
+    public int getWeakPointsRemaining()
+    {
+        return weakPointsRemaining;
+    }
+
+    // Until the weak points open, or close again while they are open
+    public int getModeTicksLeft()
+    {
+        BossPhaseStore phases = sim != null ? sim.getEcs().getBossPhases() : null;
+        int slot = phases != null ? phases.indexOf(phase) : -1;
+        return slot >= 0 ? phases.getTicksLeft(slot) : 0;
+    }
+}
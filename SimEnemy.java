@@ -0,0 +1,65 @@
+import java.nio.ByteBuffer;
+
+public class SimEnemy extends SimEntity
+{
+    private int speed = 2;
+    private int direction = 0;
+    private int changeDirectionTimer = 0;
+
+    public SimEnemy(int direction)
+    {
+        super(ENEMY, 80, 80);
+        this.direction = direction;
+    }
+
+    public void prepare()
+    {
+        prepareAdvance(Motion.toFixed(speed), Motion.normalize(direction));
+    }
+
+    public void act()
+    {
+        move();
+        checkBoundaries();
+
+        changeDirectionTimer++;
+        if (changeDirectionTimer > 60)
+        {
+            direction = sim.random(360);
+            changeDirectionTimer = 0;
+        }
+    }
+
+    private void move()
+    {
+        setRotation(direction);
+        applyAdvance();
+    }
+
+    private void checkBoundaries()
+    {
+        int x = getX();
+        int y = getY();
+
+        if (x <= 15 || x >= Simulation.WIDTH - 15 ||
+            y <= 15 || y >= Simulation.HEIGHT - 50)
+        {
+            direction = direction + 180;
+            if (direction >= 360) direction -= 360;
+        }
+    }
+
+    protected void save(ByteBuffer out)
+    {
+        super.save(out);
+        out.putShort((short) direction);
+        out.putShort((short) changeDirectionTimer);
+    }
+
+    protected void load(ByteBuffer in)
+    {
+        super.load(in);
+        direction = in.getShort();
+        changeDirectionTimer = in.getShort();
+    }
+}
@@ -0,0 +1,266 @@
+import java.nio.ByteBuffer;
+
+// Plain game-object state stepped by Simulation. No Greenfoot classes here,
+// so the whole rule set can run headless; the Actor classes only draw it.
+public abstract class SimEntity
+{
+    // Entity kinds, used to index per-kind storage such as the SpatialHash
+    public static final int PLAYER = 0;
+    public static final int STAR = 1;
+    public static final int ENEMY = 2;
+    public static final int BOSS = 3;
+    public static final int WEAK_POINT = 4;
+    // Player bullets live in the Simulation's Ecs; the kind only names their profiler section
+    public static final int BULLET = 5;
+    public static final int KINDS = 6;
+
+    private static final int MAX_FIXED_X = Motion.toFixed(Simulation.WIDTH - 1);
+    private static final int MAX_FIXED_Y = Motion.toFixed(Simulation.HEIGHT - 1);
+
+    protected Simulation sim;
+    private final int kind;
+    private int x;
+    private int y;
+    // Sub-pixel position in Motion fixed point; x and y are it rounded
+    private int fixedX;
+    private int fixedY;
+    private int rotation;
+    private final int width;
+    private final int height;
+    private boolean alive = false;
+
+    // Location at the start of the tick, for drawing in between ticks
+    private int previousFixedX;
+    private int previousFixedY;
+
+    // Next location worked out by prepare(), applied in act()
+    protected int nextFixedX;
+    protected int nextFixedY;
+
+    // Whatever draws this entity (an Actor in GameWorld), null when headless
+    private Object view;
+
+    // Position in its Simulation list while a snapshot is written
+    int snapshotIndex;
+
+    // Names the entity to network clients; given out by its Simulation, never saved
+    int netId;
+
+    // Bucket links maintained by SpatialHash
+    int cell = -1;
+    SimEntity nextInCell;
+    SimEntity prevInCell;
+
+    protected SimEntity(int kind, int width, int height)
+    {
+        this.kind = kind;
+        this.width = width;
+        this.height = height;
+    }
+
+    // First half of an update. Simulation calls prepare() on every entity of a
+    // kind, possibly in parallel, before their act() calls run in order. It may
+    // only read this entity's own state and write what act() will apply, so
+    // that running it early or on another thread changes nothing.
+    public void prepare()
+    {
+    }
+
+    public abstract void act();
+
+    void attach(Simulation sim, int x, int y)
+    {
+        this.sim = sim;
+        setLocation(x, y);
+        savePosition();
+        this.alive = true;
+        sim.getSpatialHash().insert(this);
+    }
+
+    // attach() for an entity whose location came from a snapshot
+    void attachInPlace(Simulation sim)
+    {
+        this.sim = sim;
+        savePosition();
+        this.alive = true;
+        sim.getSpatialHash().insert(this);
+    }
+
+    void detach()
+    {
+        alive = false;
+        sim.getSpatialHash().remove(this);
+    }
+
+    public Object getView()
+    {
+        return view;
+    }
+
+    public void setView(Object view)
+    {
+        this.view = view;
+    }
+
+    public int getKind()
+    {
+        return kind;
+    }
+
+    public int getNetId()
+    {
+        return netId;
+    }
+
+    public boolean isAlive()
+    {
+        return alive;
+    }
+
+    public int getX()
+    {
+        return x;
+    }
+
+    public int getY()
+    {
+        return y;
+    }
+
+    public int getRotation()
+    {
+        return rotation;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public int getFixedX()
+    {
+        return fixedX;
+    }
+
+    public int getFixedY()
+    {
+        return fixedY;
+    }
+
+    // Snapshots: subclasses write and read their own state after this
+    protected void save(ByteBuffer out)
+    {
+        out.putInt(fixedX);
+        out.putInt(fixedY);
+        out.putShort((short) rotation);
+    }
+
+    // Only called before the entity is attached
+    protected void load(ByteBuffer in)
+    {
+        fixedX = in.getInt();
+        fixedY = in.getInt();
+        x = Motion.toPixels(fixedX);
+        y = Motion.toPixels(fixedY);
+        rotation = in.getShort();
+    }
+
+    // Called by Simulation as every tick starts
+    void savePosition()
+    {
+        previousFixedX = fixedX;
+        previousFixedY = fixedY;
+    }
+
+    // Where to draw the entity a fraction alpha (0 to Motion.ONE) of the way
+    // from its location at the start of the last tick to its current one
+    public int getInterpolatedX(int alpha)
+    {
+        return Motion.toPixels(previousFixedX + (((fixedX - previousFixedX) * alpha) >> Motion.FIXED_SHIFT));
+    }
+
+    public int getInterpolatedY(int alpha)
+    {
+        return Motion.toPixels(previousFixedY + (((fixedY - previousFixedY) * alpha) >> Motion.FIXED_SHIFT));
+    }
+
+    public void setLocation(int x, int y)
+    {
+        setFixedLocation(Motion.toFixed(x), Motion.toFixed(y));
+    }
+
+    // Same as a bounded Greenfoot world: locations are clamped to the world
+    public void setFixedLocation(int fixedX, int fixedY)
+    {
+        this.fixedX = Math.max(0, Math.min(MAX_FIXED_X, fixedX));
+        this.fixedY = Math.max(0, Math.min(MAX_FIXED_Y, fixedY));
+        int newX = Motion.toPixels(this.fixedX);
+        int newY = Motion.toPixels(this.fixedY);
+        if (newX != x || newY != y)
+        {
+            x = newX;
+            y = newY;
+            if (alive)
+            {
+                sim.getSpatialHash().moved(this);
+            }
+        }
+    }
+
+    public void setRotation(int rotation)
+    {
+        this.rotation = Motion.normalize(rotation);
+    }
+
+    // Moves speed (fixed point) along a heading, keeping the sub-pixel remainder
+    public void advance(int speed, int heading)
+    {
+        setFixedLocation(fixedX + Motion.stepX(speed, heading), fixedY + Motion.stepY(speed, heading));
+    }
+
+    // advance() split for prepare() and act()
+    protected void prepareAdvance(int speed, int heading)
+    {
+        nextFixedX = fixedX + Motion.stepX(speed, heading);
+        nextFixedY = fixedY + Motion.stepY(speed, heading);
+    }
+
+    protected void applyAdvance()
+    {
+        setFixedLocation(nextFixedX, nextFixedY);
+    }
+
+    public void move(int distance)
+    {
+        advance(Motion.toFixed(distance), rotation);
+    }
+
+    public boolean isAtEdge()
+    {
+        return x <= 0 || y <= 0 || x >= Simulation.WIDTH - 1 || y >= Simulation.HEIGHT - 1;
+    }
+
+    // Axis-aligned box at sprite size, centred on the location
+    public boolean intersects(SimEntity other)
+    {
+        return Math.abs(x - other.x) * 2 < width + other.width
+            && Math.abs(y - other.y) * 2 < height + other.height;
+    }
+
+    // Whether this entity, moving in a line from (fromX, fromY) to where it is
+    // now, touched the other one at any point
+    public boolean intersectsAlong(SimEntity other, int fromX, int fromY)
+    {
+        return Sweep.hits(fromX, fromY, x, y, width, height, other.x, other.y, other.width, other.height);
+    }
+
+    protected <T extends SimEntity> T getOneIntersectingObject(Class<T> type)
+    {
+        return sim.getOneIntersecting(this, type);
+    }
+}
@@ -0,0 +1,100 @@
+// What happened during a tick, as (type, value) pairs in the order it was
+// published. Entities publish through the Simulation while they act, and the
+// Simulation settles the whole queue once when the tick ends, so nothing an
+// entity does mid-tick changes the world under the entities still to act.
+// A preallocated ring; it only grows if one tick publishes more than it holds.
+public class SimEvents
+{
+    public static final int STAR_COLLECTED = 0;
+    // value: the player slot
+    public static final int PLAYER_HIT = 1;
+    // value: the boss level
+    public static final int BOSS_DEFEATED = 2;
+    // value: a SoundManager effect
+    public static final int SOUND = 3;
+    // value: level * 2, plus 1 for a boss level
+    public static final int LEVEL_STARTED = 4;
+    public static final int GAME_RESTARTED = 5;
+
+    private int[] types;
+    private int[] values;
+    private int head = 0;
+    private int size = 0;
+
+    // Last event taken by poll()
+    private int type;
+    private int value;
+
+    public SimEvents(int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        types = new int[size];
+        values = new int[size];
+    }
+
+    public void publish(int type, int value)
+    {
+        if (size == types.length)
+        {
+            grow();
+        }
+        int slot = (head + size) & (types.length - 1);
+        types[slot] = type;
+        values[slot] = value;
+        size++;
+    }
+
+    // Takes the oldest event, false when there is none; read it with getType()/getValue()
+    public boolean poll()
+    {
+        if (size == 0) return false;
+
+        type = types[head];
+        value = values[head];
+        head = (head + 1) & (types.length - 1);
+        size--;
+        return true;
+    }
+
+    public void clear()
+    {
+        head = 0;
+        size = 0;
+    }
+
+    // Unwraps the ring into an array twice the size
+    private void grow()
+    {
+        int[] newTypes = new int[types.length * 2];
+        int[] newValues = new int[values.length * 2];
+        for (int i = 0; i < size; i++)
+        {
+            int slot = (head + i) & (types.length - 1);
+            newTypes[i] = types[slot];
+            newValues[i] = values[slot];
+        }
+        types = newTypes;
+        values = newValues;
+        head = 0;
+    }
+
+    public int getType()
+    {
+        return type;
+    }
+
+    public int getValue()
+    {
+        return value;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int getCapacity()
+    {
+        return types.length;
+    }
+}
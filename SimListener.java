@@ -0,0 +1,29 @@
+// Hooks the presentation layer (GameWorld) uses to follow a Simulation.
+// Every method has an empty default so a headless run needs no listener.
+// Entities come and go as they happen; everything else arrives once per
+// tick, when the Simulation settles that tick's SimEvents.
+public interface SimListener
+{
+    default void entityAdded(SimEntity entity) {}
+
+    default void entityRemoved(SimEntity entity) {}
+
+    // A snapshot restore put entity where old was; by default old is removed
+    // and entity added, but a view of old may be kept and pointed at entity
+    default void entityReplaced(SimEntity old, SimEntity entity)
+    {
+        entityRemoved(old);
+        entityAdded(entity);
+    }
+
+    // effect is one of the SoundManager constants
+    default void soundPlayed(int effect) {}
+
+    default void levelStarted(int level, boolean bossLevel) {}
+
+    default void bossDefeated(int bossLevel) {}
+
+    default void gameOver() {}
+
+    default void gameRestarted() {}
+}
@@ -0,0 +1,158 @@
+import java.nio.ByteBuffer;
+
+public class SimPlayer extends SimEntity
+{
+    // Which player's input steers this ship
+    private int slot;
+    private int lastMovementRotation = 0;
+    private int speed = Motion.toFixed(4);
+    private int shootTimer = 0;
+    private boolean isImmune = false;
+    private int immunityTimer = 0;
+
+    public SimPlayer(int slot)
+    {
+        super(PLAYER, 50, 50);
+        this.slot = slot;
+    }
+
+    public void act()
+    {
+        handleMovement();
+        handleShooting();
+        checkCollisions();
+        handleImmunity();
+    }
+
+    private void handleMovement()
+    {
+        int x = getFixedX();
+        int y = getFixedY();
+        int rotation = -1;
+        int imageRotationOffset = -90;
+        boolean up = sim.isKeyDown(slot, Simulation.KEY_UP);
+        boolean down = sim.isKeyDown(slot, Simulation.KEY_DOWN);
+        boolean left = sim.isKeyDown(slot, Simulation.KEY_LEFT);
+        boolean right = sim.isKeyDown(slot, Simulation.KEY_RIGHT);
+
+        if (up && right) rotation = 315;
+        else if (up && left) rotation = 225;
+        else if (down && right) rotation = 45;
+        else if (down && left) rotation = 135;
+        else if (up) rotation = 270;
+        else if (right) rotation = 0;
+        else if (down) rotation = 90;
+        else if (left) rotation = 180;
+
+        if (rotation != -1)
+        {
+            lastMovementRotation = rotation;
+            setRotation(rotation + imageRotationOffset);
+            int newX = x + Motion.stepX(speed, rotation);
+            int newY = y + Motion.stepY(speed, rotation);
+            int pixelX = Motion.toPixels(newX);
+            int pixelY = Motion.toPixels(newY);
+            if (pixelX > 15 && pixelX < Simulation.WIDTH - 15) x = newX;
+            if (pixelY > 15 && pixelY < Simulation.HEIGHT - 50) y = newY;
+            setFixedLocation(x, y);
+        }
+    }
+
+    private void handleShooting()
+    {
+        if (shootTimer > 0) shootTimer--;
+        if (sim.isKeyDown(slot, Simulation.KEY_FIRE) && shootTimer == 0)
+        {
+            int bulletOffset = 50;
+            int bulletX = Motion.toPixels(getFixedX() + bulletOffset * Motion.cos(lastMovementRotation));
+            int bulletY = Motion.toPixels(getFixedY() + bulletOffset * Motion.sin(lastMovementRotation));
+            sim.addBullet(bulletX, bulletY, lastMovementRotation);
+            sim.playSound(SoundManager.FIRE);
+            shootTimer = 15;
+        }
+    }
+
+    private void checkCollisions()
+    {
+        // Star collection
+        SimStar star = getOneIntersectingObject(SimStar.class);
+        if (star != null)
+        {
+            sim.playSound(SoundManager.KUHA);
+            sim.remove(star);
+            sim.starCollected();
+        }
+
+        if (!isImmune)
+        {
+            // Enemy collision
+            if (sim.isTouchingEnemy(this))
+            {
+                sim.playerHit(slot);
+                return;
+            }
+
+            // Boss collision
+            if (getOneIntersectingObject(SimBoss.class) != null)
+            {
+                sim.playerHit(slot);
+                return;
+            }
+
+            // Boss bullets test themselves against the player in BossBulletStore.update()
+        }
+    }
+
+    private void handleImmunity()
+    {
+        if (isImmune)
+        {
+            immunityTimer--;
+            if (immunityTimer <= 0)
+            {
+                isImmune = false;
+            }
+        }
+    }
+
+    public void startImmunity()
+    {
+        isImmune = true;
+        immunityTimer = 180; // 3 seconds at 60 FPS
+    }
+
+    protected void save(ByteBuffer out)
+    {
+        super.save(out);
+        out.put((byte) slot);
+        out.putShort((short) lastMovementRotation);
+        out.putShort((short) shootTimer);
+        out.put((byte) (isImmune ? 1 : 0));
+        out.putShort((short) immunityTimer);
+    }
+
+    protected void load(ByteBuffer in)
+    {
+        super.load(in);
+        slot = in.get();
+        lastMovementRotation = in.getShort();
+        shootTimer = in.getShort();
+        isImmune = in.get() != 0;
+        immunityTimer = in.getShort();
+    }
+
+    public int getSlot()
+    {
+        return slot;
+    }
+
+    public boolean isImmune()
+    {
+        return isImmune;
+    }
+
+    public int getImmunityTimer()
+    {
+        return immunityTimer;
+    }
+}
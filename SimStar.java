@@ -0,0 +1,20 @@
+public class SimStar extends SimEntity
+{
+    private int nextRotation;
+
+    public SimStar()
+    {
+        super(STAR, 20, 20);
+    }
+
+    public void prepare()
+    {
+        nextRotation = getRotation() + 2;
+    }
+
+    public void act()
+    {
+        // Rotate the star for visual effect
+        setRotation(nextRotation);
+    }
+}
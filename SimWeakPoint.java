@@ -0,0 +1,103 @@
+import java.nio.ByteBuffer;
+
+public class SimWeakPoint extends SimEntity
+{
+    private SimBoss parentBoss;
+    private int pointId;
+    private int radius;
+    private int angle;
+    private boolean vulnerable = false;
+    private boolean destroyed = false;
+
+    public SimWeakPoint(SimBoss parent, int id, int radius, int angle)
+    {
+        super(WEAK_POINT, 30, 30);
+        this.parentBoss = parent;
+        this.pointId = id;
+        this.radius = radius;
+        this.angle = angle;
+    }
+
+    public void act()
+    {
+        if (destroyed) return;
+
+        angle += 1;
+        if (angle >= 360) angle = 0;
+    }
+
+    public void updatePosition()
+    {
+        if (destroyed || parentBoss == null || !parentBoss.isAlive()) return;
+
+        int x = parentBoss.getFixedX() + radius * Motion.cos(angle);
+        int y = parentBoss.getFixedY() + radius * Motion.sin(angle);
+
+        setFixedLocation(x, y);
+    }
+
+    // A player bullet reached it; ProjectileSystem uses the bullet up either way
+    public void shot()
+    {
+        if (!vulnerable || destroyed) return;
+
+        destroyWeakPoint();
+    }
+
+    private void destroyWeakPoint()
+    {
+        destroyed = true;
+        sim.playSound(SoundManager.HIT);
+
+        if (parentBoss != null)
+        {
+            parentBoss.weakPointDestroyed();
+        }
+
+        sim.remove(this);
+    }
+
+    // The parent boss is linked up by Simulation, by its index
+    protected void save(ByteBuffer out)
+    {
+        super.save(out);
+        out.putShort((short) pointId);
+        out.putShort((short) radius);
+        out.putShort((short) angle);
+        out.put((byte) (vulnerable ? 1 : 0));
+    }
+
+    protected void load(ByteBuffer in)
+    {
+        super.load(in);
+        pointId = in.getShort();
+        radius = in.getShort();
+        angle = in.getShort();
+        vulnerable = in.get() != 0;
+    }
+
+    public SimBoss getParentBoss()
+    {
+        return parentBoss;
+    }
+
+    public void setVulnerable(boolean vulnerable)
+    {
+        this.vulnerable = vulnerable;
+    }
+
+    public boolean isVulnerable()
+    {
+        return vulnerable;
+    }
+
+    public boolean isDestroyed()
+    {
+        return destroyed;
+    }
+
+    public int getPointId()
+    {
+        return pointId;
+    }
+}
@@ -0,0 +1,1175 @@
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// The game rules without Greenfoot: level flow, stars, enemies, boss and
+// bullets, advanced one tick at a time by tick(). GameWorld drives it at frame
+// pace and draws it; HeadlessRunner steps it as fast as the CPU allows.
+public class Simulation
+{
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 600;
+
+    // Input bits passed to tick()
+    public static final int KEY_UP = 1;
+    public static final int KEY_DOWN = 2;
+    public static final int KEY_LEFT = 4;
+    public static final int KEY_RIGHT = 8;
+    public static final int KEY_FIRE = 16;
+    public static final int KEY_RESTART = 32;
+
+    // Co-op: every player slot gets its own input bits and its own ship, one
+    // PLAYER_SPACING below the last, and they share lives and score
+    public static final int MAX_PLAYERS = 2;
+    public static final int PLAYER_SPACING = 80;
+
+    // Level transitions: entities spawned per tick while a level is built,
+    // and how long its banner holds play before the level starts
+    public static final int SPAWN_BUDGET = 16;
+    public static final int LEVEL_BANNER_TICKS = 60;
+    public static final int BOSS_BANNER_TICKS = 90;
+    public static final int BOSS_DEFEATED_BANNER_TICKS = 60;
+
+    private static final SimListener SILENT = new SimListener() {};
+
+    // Snapshot header: "GWSN" and the format version
+    private static final int SNAPSHOT_MAGIC = 0x4757534E;
+    private static final int SNAPSHOT_VERSION = 4;
+
+    // Player bullets fly 8 px a tick; the edge of the world normally removes
+    // them well before their lifetime runs out
+    private static final int BULLET_SPEED = Motion.toFixed(8);
+    private static final int BULLET_LIFETIME = 150;
+
+    private int level = 1;
+    private int lives = 3;
+    private int score = 0;
+    private int starsLeft = 0;
+    private boolean gameOver = false;
+    private boolean gameWon = false;
+    private boolean levelComplete = false;
+    private int levelChangeTimer = 0;
+    private boolean levelCompleteSoundPlayed = false;
+
+    // Boss system
+    private boolean bossLevel = false;
+    private boolean bossDefeated = false;
+    private int bossDefeatedTimer = 0;
+
+    private final LevelLoader loader = new LevelLoader();
+    // Layouts come from the seed, so they can be built ahead on another thread
+    private LevelCache layouts;
+    private DifficultyTable difficulty = DifficultyTable.STANDARD;
+    private int transitionTimer = 0;
+
+    private final ArrayList<SimPlayer> players = new ArrayList<SimPlayer>();
+    private final ArrayList<SimStar> stars = new ArrayList<SimStar>();
+    private final ArrayList<SimEnemy> enemies = new ArrayList<SimEnemy>();
+    private final ArrayList<SimBoss> bosses = new ArrayList<SimBoss>();
+    private final ArrayList<SimWeakPoint> weakPoints = new ArrayList<SimWeakPoint>();
+
+    // Player bullets are Ecs entities, stepped by its systems instead of act()
+    private final Ecs ecs = new Ecs();
+
+    // Boss bullets are not entities at all, just slots in one batched store
+    private final BossBulletStore bossBullets = new BossBulletStore();
+
+    // Swarm mode: normal levels get swarmSize array-backed enemies instead of SimEnemy objects
+    private final EnemySwarm swarm = new EnemySwarm(WIDTH, HEIGHT);
+    private int swarmSize = 0;
+
+    private final SpatialHash spatialHash = new SpatialHash(WIDTH, HEIGHT);
+    // Every random decision in the game comes from here, so a seed and the
+    // inputs are enough to play a game again exactly
+    private final long seed;
+    private final SeededRandom random;
+    private SimListener listener = SILENT;
+    // Game events of the running tick, settled in settleEvents() when it ends
+    private final SimEvents events = new SimEvents(64);
+    private TickProfiler profiler = null;
+    // The entities of one kind a snapshot restore is replacing
+    private final ArrayList<SimEntity> replaced = new ArrayList<SimEntity>();
+
+    // Large passes run their prepare() half on this pool; null keeps everything on the tick thread
+    private ForkJoinPool updatePool = null;
+    private ArrayList<? extends SimEntity> preparing;
+    private final ParallelRange.Body prepareRange = this::prepareRange;
+    // Bits held by each player slot, and all of them together
+    private final int[] inputs = new int[MAX_PLAYERS];
+    private int input = 0;
+    private int playerCount = 1;
+    private int nextNetId = 0;
+    private long tickCount = 0;
+
+    public Simulation()
+    {
+        this(null);
+    }
+
+    public Simulation(SimListener listener)
+    {
+        this(listener, System.nanoTime());
+    }
+
+    public Simulation(SimListener listener, long seed)
+    {
+        this.seed = seed;
+        this.random = new SeededRandom(seed);
+        this.layouts = new LevelCache(seed, 4, null);
+        setListener(listener);
+    }
+
+    public void setListener(SimListener listener)
+    {
+        this.listener = listener != null ? listener : SILENT;
+    }
+
+    // Advances the game by one frame with the given KEY_* bits held down
+    public void tick(int input)
+    {
+        inputs[0] = input;
+        this.input = input;
+        step();
+    }
+
+    // One frame of a co-op game: the KEY_* bits of each player slot
+    public void tick(int[] playerInputs)
+    {
+        input = 0;
+        for (int slot = 0; slot < MAX_PLAYERS; slot++)
+        {
+            inputs[slot] = slot < playerInputs.length ? playerInputs[slot] : 0;
+            input |= inputs[slot];
+        }
+        step();
+    }
+
+    private void step()
+    {
+        tickCount++;
+        if (profiler != null) profiler.beginTick();
+
+        savePositions();
+        updateLevelState();
+
+        if (isStartingLevel())
+        {
+            loader.spawn(this, SPAWN_BUDGET);
+            if (transitionTimer > 0) transitionTimer--;
+        }
+        else if (!gameOver)
+        {
+            actAll(players, SimEntity.PLAYER);
+            actAll(stars, SimEntity.STAR);
+            actAll(enemies, SimEntity.ENEMY);
+            updateSwarm();
+            BossPhaseSystem.run(ecs);
+            actAll(bosses, SimEntity.BOSS);
+            actAll(weakPoints, SimEntity.WEAK_POINT);
+            runSystems();
+            updateBossBullets();
+        }
+
+        settleEvents();
+        purgeRemoved();
+        if (profiler != null) profiler.endTick(getEntityCount());
+    }
+
+    private void updateLevelState()
+    {
+        if (bossDefeatedTimer > 0) bossDefeatedTimer--;
+
+        if (levelComplete)
+        {
+            if (!levelCompleteSoundPlayed)
+            {
+                playSound(SoundManager.NEXT_LEVEL);
+                levelCompleteSoundPlayed = true;
+            }
+
+            levelChangeTimer++;
+
+            if (levelChangeTimer >= 60)
+            {
+                levelChangeTimer = 0;
+                levelComplete = false;
+                levelCompleteSoundPlayed = false;
+
+                if (level < 100)
+                {
+                    level++;
+                    lives = 3;
+                    startLevel(level);
+                }
+                else
+                {
+                    gameWon = true;
+                    gameOver = true;
+                }
+            }
+        }
+
+        if (gameOver && isKeyDown(KEY_RESTART))
+        {
+            restartGame();
+        }
+
+        // Stars collected, and the boss defeated on boss levels
+        if (starsLeft == 0 && !levelComplete && !gameOver)
+        {
+            if (!bossLevel || bossDefeated)
+            {
+                levelComplete = true;
+                score += 100 * level;
+            }
+        }
+    }
+
+    private void savePositions()
+    {
+        savePositions(players);
+        savePositions(stars);
+        savePositions(enemies);
+        savePositions(bosses);
+        savePositions(weakPoints);
+        ecs.getPositions().savePositions();
+    }
+
+    private void savePositions(ArrayList<? extends SimEntity> entities)
+    {
+        for (int i = 0; i < entities.size(); i++)
+        {
+            entities.get(i).savePosition();
+        }
+    }
+
+    private void actAll(ArrayList<? extends SimEntity> entities, int kind)
+    {
+        TickProfiler profiler = this.profiler;
+        long start = profiler != null ? profiler.beginSection() : 0;
+
+        // Entities added during this pass wait for the next tick, like new actors do
+        int count = entities.size();
+        prepareAll(entities, count);
+
+        int acted = 0;
+        for (int i = 0; i < count; i++)
+        {
+            SimEntity entity = entities.get(i);
+            if (entity.isAlive())
+            {
+                entity.act();
+                acted++;
+            }
+        }
+
+        if (profiler != null) profiler.endSection(kind, start, acted, count);
+    }
+
+    private void runSystems()
+    {
+        TickProfiler profiler = this.profiler;
+        long start = profiler != null ? profiler.beginSection() : 0;
+        int count = ecs.size() - ecs.getBossPhases().size();
+
+        MovementSystem.run(ecs);
+        ProjectileSystem.run(this, ecs);
+        LifetimeSystem.run(ecs);
+
+        if (profiler != null) profiler.endSection(SimEntity.BULLET, start, count, count);
+    }
+
+    private void updateBossBullets()
+    {
+        if (profiler == null)
+        {
+            bossBullets.update(this);
+            return;
+        }
+
+        long start = profiler.beginSection();
+        int count = bossBullets.getCount();
+        bossBullets.update(this);
+        profiler.endSection(TickProfiler.BOSS_BULLETS, start, count, count);
+    }
+
+    // Every entity's prepare() only touches itself, so the order and the
+    // threads they run on cannot change what the act() calls then see
+    private void prepareAll(ArrayList<? extends SimEntity> entities, int count)
+    {
+        preparing = entities;
+        ParallelRange.run(updatePool, count, prepareRange);
+        preparing = null;
+    }
+
+    private void prepareRange(int from, int to)
+    {
+        ArrayList<? extends SimEntity> entities = preparing;
+        for (int i = from; i < to; i++)
+        {
+            entities.get(i).prepare();
+        }
+    }
+
+    private void updateSwarm()
+    {
+        if (profiler == null)
+        {
+            swarm.update(this);
+            return;
+        }
+
+        long start = profiler.beginSection();
+        int count = swarm.getLiveCount();
+        swarm.update(this);
+        profiler.endSection(TickProfiler.SWARM, start, count, count);
+    }
+
+    private void purgeRemoved()
+    {
+        purgeRemoved(players);
+        purgeRemoved(stars);
+        purgeRemoved(enemies);
+        purgeRemoved(bosses);
+        purgeRemoved(weakPoints);
+        ecs.flush();
+    }
+
+    private void purgeRemoved(ArrayList<? extends SimEntity> entities)
+    {
+        entities.removeIf(entity -> !entity.isAlive());
+    }
+
+    // Queues the level's entities and starts its banner; tick() spawns them
+    // SPAWN_BUDGET at a time and play resumes once the banner has run out
+    public void startLevel(int levelNum)
+    {
+        removeAll();
+        loader.clear();
+
+        level = levelNum;
+        bossLevel = (levelNum % 5 == 0);
+        bossDefeated = false;
+        bossDefeatedTimer = 0;
+
+        LevelLayout layout = layouts.get(levelNum, swarmSize);
+        starsLeft = layout.getStarCount();
+        for (int i = 0; i < layout.getCount(); i++)
+        {
+            int kind = layout.getKind(i);
+            if (kind == SimEntity.ENEMY && swarmSize > 0)
+            {
+                // Swarm enemies are only array slots, so they go in at once
+                swarm.add(layout.getX(i), layout.getY(i), layout.getHeading(i));
+            }
+            else
+            {
+                loader.queue(kind, layout.getX(i), layout.getY(i), layout.getHeading(i));
+            }
+        }
+        transitionTimer = bossLevel ? BOSS_BANNER_TICKS : LEVEL_BANNER_TICKS;
+
+        // Have the next level ready by the time this one is cleared
+        layouts.prefetch(levelNum + 1, swarmSize);
+
+        // The player and the first few entities show up straight away
+        loader.spawn(this, SPAWN_BUDGET);
+
+        events.publish(SimEvents.LEVEL_STARTED, levelNum * 2 + (bossLevel ? 1 : 0));
+    }
+
+    // Skips the rest of a level transition, e.g. for benchmarks and tools
+    public void finishLoading()
+    {
+        loader.spawn(this, Integer.MAX_VALUE);
+        transitionTimer = 0;
+    }
+
+    void spawn(int kind, int x, int y, int heading)
+    {
+        switch (kind)
+        {
+            case SimEntity.PLAYER:
+                for (int slot = 0; slot < playerCount; slot++)
+                {
+                    add(players, new SimPlayer(slot), x, y + slot * PLAYER_SPACING);
+                }
+                break;
+            case SimEntity.STAR:
+                add(stars, new SimStar(), x, y);
+                break;
+            case SimEntity.ENEMY:
+                add(enemies, new SimEnemy(heading), x, y);
+                break;
+            case SimEntity.BOSS:
+                SimBoss boss = add(bosses, new SimBoss(level, heading, difficulty), x, y);
+                boss.createPhase();
+                boss.createWeakPoints();
+                break;
+            default:
+                throw new IllegalArgumentException("Level spawn of kind " + kind);
+        }
+    }
+
+    public void restartGame()
+    {
+        events.publish(SimEvents.GAME_RESTARTED, 0);
+
+        level = 1;
+        lives = 3;
+        score = 0;
+        gameOver = false;
+        gameWon = false;
+        levelComplete = false;
+        levelChangeTimer = 0;
+        levelCompleteSoundPlayed = false;
+        startLevel(1);
+    }
+
+    // Writes the whole game state at the buffer's position. Taken between
+    // ticks, it holds everything the next tick reads, so a restored game
+    // plays on exactly like the original would have
+    public void saveSnapshot(ByteBuffer out)
+    {
+        out.putInt(SNAPSHOT_MAGIC);
+        out.putShort((short) SNAPSHOT_VERSION);
+        out.putLong(tickCount);
+        out.putLong(random.getState());
+        out.putShort((short) level);
+        out.putShort((short) lives);
+        out.putInt(score);
+        out.putShort((short) starsLeft);
+        out.put((byte) ((gameOver ? 1 : 0) | (gameWon ? 2 : 0) | (levelComplete ? 4 : 0)
+            | (levelCompleteSoundPlayed ? 8 : 0) | (bossLevel ? 16 : 0) | (bossDefeated ? 32 : 0)));
+        out.putShort((short) levelChangeTimer);
+        out.putShort((short) bossDefeatedTimer);
+        out.putShort((short) transitionTimer);
+        out.putInt(swarmSize);
+        out.put((byte) playerCount);
+        loader.save(out);
+
+        saveEntities(out, players);
+        saveEntities(out, stars);
+        saveEntities(out, enemies);
+        out.putShort((short) bosses.size());
+        for (int i = 0; i < bosses.size(); i++)
+        {
+            SimBoss boss = bosses.get(i);
+            boss.snapshotIndex = i;
+            out.putShort((short) boss.getBossLevel());
+            boss.save(out);
+        }
+        out.putShort((short) weakPoints.size());
+        for (int i = 0; i < weakPoints.size(); i++)
+        {
+            SimWeakPoint weakPoint = weakPoints.get(i);
+            SimBoss parent = weakPoint.getParentBoss();
+            weakPoint.snapshotIndex = i;
+            out.putShort((short) (parent != null && parent.isAlive() ? parent.snapshotIndex : -1));
+            weakPoint.save(out);
+        }
+        for (int kind = 0; kind < SimEntity.KINDS; kind++)
+        {
+            spatialHash.saveOrder(out, kind);
+        }
+
+        swarm.save(out);
+        bossBullets.save(out);
+        ecs.save(out);
+    }
+
+    // Replaces the whole game with a snapshot read from the buffer's position.
+    // The listener sees each old entity replaced by the restored one of the
+    // same kind at the same index, and only the rest added or removed, so
+    // rewinding every frame keeps the views it already has.
+    public void restoreSnapshot(ByteBuffer in)
+    {
+        if (in.getInt() != SNAPSHOT_MAGIC || in.getShort() != SNAPSHOT_VERSION)
+        {
+            throw new IllegalArgumentException("Not a version " + SNAPSHOT_VERSION + " snapshot");
+        }
+
+        ecs.clear();
+        bossBullets.clear();
+        swarm.clear();
+        events.clear();
+        tickCount = in.getLong();
+        random.setState(in.getLong());
+        level = in.getShort();
+        lives = in.getShort();
+        score = in.getInt();
+        starsLeft = in.getShort();
+        int flags = in.get();
+        gameOver = (flags & 1) != 0;
+        gameWon = (flags & 2) != 0;
+        levelComplete = (flags & 4) != 0;
+        levelCompleteSoundPlayed = (flags & 8) != 0;
+        bossLevel = (flags & 16) != 0;
+        bossDefeated = (flags & 32) != 0;
+        levelChangeTimer = in.getShort();
+        bossDefeatedTimer = in.getShort();
+        transitionTimer = in.getShort();
+        swarmSize = in.getInt();
+        playerCount = in.get();
+        loader.load(in);
+
+        replaceFrom(players);
+        for (int i = in.getShort(); i > 0; i--)
+        {
+            restore(players, new SimPlayer(0), in);
+        }
+        dropReplaced(players);
+        replaceFrom(stars);
+        for (int i = in.getShort(); i > 0; i--)
+        {
+            restore(stars, new SimStar(), in);
+        }
+        dropReplaced(stars);
+        replaceFrom(enemies);
+        for (int i = in.getShort(); i > 0; i--)
+        {
+            restore(enemies, new SimEnemy(0), in);
+        }
+        dropReplaced(enemies);
+        replaceFrom(bosses);
+        for (int i = in.getShort(); i > 0; i--)
+        {
+            restore(bosses, new SimBoss(in.getShort(), 0, difficulty), in);
+        }
+        dropReplaced(bosses);
+        replaceFrom(weakPoints);
+        for (int i = in.getShort(); i > 0; i--)
+        {
+            int parentIndex = in.getShort();
+            SimBoss parent = parentIndex >= 0 ? bosses.get(parentIndex) : null;
+            SimWeakPoint weakPoint = restore(weakPoints, new SimWeakPoint(parent, 0, 0, 0), in);
+            if (parent != null) parent.addWeakPoint(weakPoint);
+        }
+        dropReplaced(weakPoints);
+        for (int kind = 0; kind < SimEntity.KINDS; kind++)
+        {
+            spatialHash.loadOrder(in, kind, getEntities(kind));
+        }
+
+        swarm.load(in);
+        bossBullets.load(in);
+        ecs.load(in);
+    }
+
+    // A snapshot in an array of its own, e.g. for a file
+    public byte[] snapshot()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (true)
+        {
+            try
+            {
+                saveSnapshot(buffer);
+                byte[] bytes = new byte[buffer.position()];
+                buffer.flip();
+                buffer.get(bytes);
+                return bytes;
+            }
+            catch (BufferOverflowException e)
+            {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    public void restoreSnapshot(byte[] snapshot)
+    {
+        restoreSnapshot(ByteBuffer.wrap(snapshot));
+    }
+
+    private static void saveEntities(ByteBuffer out, ArrayList<? extends SimEntity> entities)
+    {
+        out.putShort((short) entities.size());
+        for (int i = 0; i < entities.size(); i++)
+        {
+            SimEntity entity = entities.get(i);
+            entity.snapshotIndex = i;
+            entity.save(out);
+        }
+    }
+
+    private <T extends SimEntity> T restore(ArrayList<T> entities, T entity, ByteBuffer in)
+    {
+        SimEntity old = entities.size() < replaced.size() ? replaced.get(entities.size()) : null;
+        boolean replacing = old != null && old.isAlive();
+        if (replacing) old.detach();
+
+        entity.load(in);
+        entity.netId = nextNetId++;
+        entity.attachInPlace(this);
+        entities.add(entity);
+
+        if (replacing)
+        {
+            listener.entityReplaced(old, entity);
+        }
+        else
+        {
+            listener.entityAdded(entity);
+        }
+        return entity;
+    }
+
+    // Sets a kind's entities aside for restore() to replace one by one
+    private void replaceFrom(ArrayList<? extends SimEntity> entities)
+    {
+        replaced.clear();
+        replaced.addAll(entities);
+        entities.clear();
+    }
+
+    // Removes the set-aside entities that nothing restored replaced
+    private void dropReplaced(ArrayList<? extends SimEntity> entities)
+    {
+        for (int i = entities.size(); i < replaced.size(); i++)
+        {
+            remove(replaced.get(i));
+        }
+        replaced.clear();
+    }
+
+    private void removeAll()
+    {
+        removeAll(players);
+        removeAll(stars);
+        removeAll(enemies);
+        removeAll(bosses);
+        removeAll(weakPoints);
+        ecs.clear();
+        bossBullets.clear();
+        swarm.clear();
+    }
+
+    private void removeAll(ArrayList<? extends SimEntity> entities)
+    {
+        for (int i = 0; i < entities.size(); i++)
+        {
+            remove(entities.get(i));
+        }
+        entities.clear();
+    }
+
+    private <T extends SimEntity> T add(ArrayList<T> entities, T entity, int x, int y)
+    {
+        entity.netId = nextNetId++;
+        entity.attach(this, x, y);
+        entities.add(entity);
+        listener.entityAdded(entity);
+        return entity;
+    }
+
+    public void remove(SimEntity entity)
+    {
+        if (entity.isAlive())
+        {
+            entity.detach();
+            listener.entityRemoved(entity);
+        }
+    }
+
+    // The invulnerable/vulnerable cycle of a boss on bossLevel; returns its Ecs id
+    int addBossPhase(int bossLevel)
+    {
+        int phase = ecs.create();
+        ecs.getBossPhases().add(phase, difficulty.getBossInvulnerableTicks(bossLevel),
+            difficulty.getBossVulnerableTicks(bossLevel));
+        return phase;
+    }
+
+    // A player bullet heading along rotation; returns its Ecs id
+    public int addBullet(int x, int y, int rotation)
+    {
+        int bullet = ecs.create();
+        ecs.getPositions().add(bullet, x, y);
+        ecs.getVelocities().add(bullet, BULLET_SPEED, rotation);
+        ecs.getColliders().add(bullet, 16, 6, ColliderStore.PLAYER_SHOT);
+        ecs.getSprites().add(bullet, SpriteStore.BULLET, rotation);
+        ecs.getLifetimes().add(bullet, BULLET_LIFETIME);
+        return bullet;
+    }
+
+    void addWeakPoint(SimWeakPoint weakPoint, int x, int y)
+    {
+        add(weakPoints, weakPoint, x, y);
+    }
+
+    // Entities report these while they act; they take effect when the tick ends
+    public void starCollected()
+    {
+        events.publish(SimEvents.STAR_COLLECTED, 0);
+    }
+
+    public void playerHit(int slot)
+    {
+        events.publish(SimEvents.PLAYER_HIT, slot);
+    }
+
+    public void bossDefeated(int bossLevel)
+    {
+        events.publish(SimEvents.BOSS_DEFEATED, bossLevel);
+    }
+
+    // Settles everything the tick published, in order: stars collected are
+    // added up into one score change, however many hits a player took in
+    // the tick cost one life, and each sound effect plays at most once
+    private void settleEvents()
+    {
+        int starsCollected = 0;
+        int playersHit = 0;
+        int sounds = 0;
+
+        while (events.poll())
+        {
+            int value = events.getValue();
+            switch (events.getType())
+            {
+                case SimEvents.STAR_COLLECTED:
+                    starsCollected++;
+                    break;
+                case SimEvents.PLAYER_HIT:
+                    if ((playersHit & (1 << value)) == 0 && !gameOver)
+                    {
+                        playersHit |= 1 << value;
+                        settlePlayerHit(value);
+                    }
+                    break;
+                case SimEvents.BOSS_DEFEATED:
+                    settleBossDefeated(value);
+                    break;
+                case SimEvents.SOUND:
+                    sounds |= 1 << value;
+                    break;
+                case SimEvents.LEVEL_STARTED:
+                    listener.levelStarted(value >> 1, (value & 1) != 0);
+                    break;
+                case SimEvents.GAME_RESTARTED:
+                    listener.gameRestarted();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event " + events.getType());
+            }
+        }
+
+        starsLeft -= starsCollected;
+        score += 10 * starsCollected;
+
+        for (int effect = 0; sounds != 0; effect++)
+        {
+            if ((sounds & (1 << effect)) != 0)
+            {
+                sounds &= ~(1 << effect);
+                listener.soundPlayed(effect);
+            }
+        }
+    }
+
+    // Lives are shared; only the ship that was hit starts over
+    private void settlePlayerHit(int slot)
+    {
+        lives--;
+
+        if (lives <= 0)
+        {
+            gameOver = true;
+            listener.gameOver();
+        }
+        else
+        {
+            playSound(SoundManager.RESPAWN);
+            for (int i = 0; i < players.size(); i++)
+            {
+                if (players.get(i).getSlot() == slot) remove(players.get(i));
+            }
+
+            SimPlayer newPlayer = add(players, new SimPlayer(slot), LevelGenerator.PLAYER_X,
+                                      LevelGenerator.PLAYER_Y + slot * PLAYER_SPACING);
+            newPlayer.startImmunity();
+        }
+    }
+
+    private void settleBossDefeated(int bossLevel)
+    {
+        bossDefeated = true;
+
+        // Level 5 boss = 500, Level 10 = 1000, etc.
+        score += 500 * (bossLevel / 5);
+        bossDefeatedTimer = BOSS_DEFEATED_BANNER_TICKS;
+
+        listener.bossDefeated(bossLevel);
+    }
+
+    // Enemy checks that also cover swarm mode
+    public boolean isTouchingEnemy(SimEntity self)
+    {
+        return spatialHash.findFirst(self, SimEntity.ENEMY) != null || swarm.findOverlap(self) >= 0;
+    }
+
+    // Kills the first enemy a width x height box touched on its way from
+    // (fromX, fromY) to (x, y)
+    public boolean destroyEnemyAlong(int fromX, int fromY, int x, int y, int width, int height)
+    {
+        SimEntity enemy = spatialHash.findFirstAlong(null, SimEntity.ENEMY, fromX, fromY, x, y, width, height);
+        if (enemy != null)
+        {
+            remove(enemy);
+            return true;
+        }
+
+        int index = swarm.findOverlapAlong(fromX, fromY, x, y, width, height);
+        if (index >= 0)
+        {
+            swarm.kill(index);
+            return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends SimEntity> T getOneIntersecting(SimEntity self, Class<T> type)
+    {
+        return (T) spatialHash.findFirst(self, kindOf(type));
+    }
+
+    // Shoots the first weak point a width x height box touched on its way
+    // from (fromX, fromY) to (x, y); only open ones take damage
+    public boolean shootWeakPointAlong(int fromX, int fromY, int x, int y, int width, int height)
+    {
+        SimWeakPoint weakPoint = (SimWeakPoint) spatialHash.findFirstAlong(null, SimEntity.WEAK_POINT,
+                                                                           fromX, fromY, x, y, width, height);
+        if (weakPoint == null) return false;
+
+        weakPoint.shot();
+        return true;
+    }
+
+    public List<? extends SimEntity> getEntities(Class<? extends SimEntity> type)
+    {
+        return getEntities(kindOf(type));
+    }
+
+    public List<? extends SimEntity> getEntities(int kind)
+    {
+        switch (kind)
+        {
+            case SimEntity.PLAYER: return players;
+            case SimEntity.STAR: return stars;
+            case SimEntity.ENEMY: return enemies;
+            case SimEntity.BOSS: return bosses;
+            case SimEntity.WEAK_POINT: return weakPoints;
+            // Player bullets are not SimEntity objects, see getEcs()
+            case SimEntity.BULLET: return Collections.emptyList();
+            default: throw new IllegalArgumentException("Unknown entity kind " + kind);
+        }
+    }
+
+    public static int kindOf(Class<? extends SimEntity> type)
+    {
+        if (type == SimPlayer.class) return SimEntity.PLAYER;
+        if (type == SimStar.class) return SimEntity.STAR;
+        if (type == SimEnemy.class) return SimEntity.ENEMY;
+        if (type == SimBoss.class) return SimEntity.BOSS;
+        if (type == SimWeakPoint.class) return SimEntity.WEAK_POINT;
+        throw new IllegalArgumentException("Unknown entity type: " + type.getName());
+    }
+
+    // Must be a cache for this game's seed and table; the next level is queued on it straight away
+    public void setLevelCache(LevelCache layouts)
+    {
+        if (layouts.getSeed() != seed)
+        {
+            throw new IllegalArgumentException("Level cache is for another seed");
+        }
+        if (layouts.getDifficulty() != difficulty)
+        {
+            throw new IllegalArgumentException("Level cache is for another difficulty table");
+        }
+        this.layouts = layouts;
+        layouts.prefetch(level + 1, swarmSize);
+    }
+
+    public LevelCache getLevelCache()
+    {
+        return layouts;
+    }
+
+    // Set before the first level starts; it replaces the level cache with one for the table
+    public void setDifficulty(DifficultyTable difficulty)
+    {
+        this.difficulty = difficulty;
+        this.layouts = new LevelCache(seed, 4, null, difficulty);
+    }
+
+    public DifficultyTable getDifficulty()
+    {
+        return difficulty;
+    }
+
+    // Instruments every tick from now on; null turns profiling off
+    public void setProfiler(TickProfiler profiler)
+    {
+        this.profiler = profiler;
+    }
+
+    public TickProfiler getProfiler()
+    {
+        return profiler;
+    }
+
+    // Lets passes of more than ParallelRange.THRESHOLD entities prepare in
+    // parallel; the results are the same as with no pool
+    public void setUpdatePool(ForkJoinPool updatePool)
+    {
+        this.updatePool = updatePool;
+    }
+
+    public ForkJoinPool getUpdatePool()
+    {
+        return updatePool;
+    }
+
+    public Ecs getEcs()
+    {
+        return ecs;
+    }
+
+    public BossBulletStore getBossBullets()
+    {
+        return bossBullets;
+    }
+
+    // Enemies per normal level in swarm mode; 0 turns swarm mode off
+    public void setSwarmSize(int swarmSize)
+    {
+        this.swarmSize = swarmSize;
+    }
+
+    public int getSwarmSize()
+    {
+        return swarmSize;
+    }
+
+    public EnemySwarm getSwarm()
+    {
+        return swarm;
+    }
+
+    public SpatialHash getSpatialHash()
+    {
+        return spatialHash;
+    }
+
+    // Held by any player
+    public boolean isKeyDown(int key)
+    {
+        return (input & key) != 0;
+    }
+
+    public boolean isKeyDown(int slot, int key)
+    {
+        return (inputs[slot] & key) != 0;
+    }
+
+    // Set before the first level starts, from 1 to MAX_PLAYERS
+    public void setPlayerCount(int playerCount)
+    {
+        if (playerCount < 1 || playerCount > MAX_PLAYERS)
+        {
+            throw new IllegalArgumentException("From 1 to " + MAX_PLAYERS + " players, not " + playerCount);
+        }
+        this.playerCount = playerCount;
+    }
+
+    public int getPlayerCount()
+    {
+        return playerCount;
+    }
+
+    public int random(int limit)
+    {
+        return random.nextInt(limit);
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    // Fingerprint of the whole game state, to check a replay ended where its recording did
+    public long checksum()
+    {
+        long hash = tickCount;
+        hash = hash * 31 + level;
+        hash = hash * 31 + lives;
+        hash = hash * 31 + score;
+        hash = hash * 31 + starsLeft;
+        hash = hash * 31 + (gameOver ? 1 : 0);
+        hash = hash * 31 + random.getState();
+        hash = checksum(hash, players);
+        hash = checksum(hash, stars);
+        hash = checksum(hash, enemies);
+        hash = checksum(hash, bosses);
+        hash = checksum(hash, weakPoints);
+        PositionStore positions = ecs.getPositions();
+        for (int i = 0; i < positions.size(); i++)
+        {
+            hash = hash * 31 + positions.getFixedX(i);
+            hash = hash * 31 + positions.getFixedY(i);
+        }
+        SpriteStore sprites = ecs.getSprites();
+        for (int i = 0; i < sprites.size(); i++)
+        {
+            hash = hash * 31 + sprites.getRotation(i);
+        }
+        for (int i = 0; i < bossBullets.getCount(); i++)
+        {
+            hash = hash * 31 + bossBullets.getX(i);
+            hash = hash * 31 + bossBullets.getY(i);
+            hash = hash * 31 + bossBullets.getRotation(i);
+        }
+        for (int i = 0; i < swarm.getSlotCount(); i++)
+        {
+            if (!swarm.isRemoved(i))
+            {
+                hash = hash * 31 + swarm.getX(i);
+                hash = hash * 31 + swarm.getY(i);
+                hash = hash * 31 + swarm.getDirection(i);
+            }
+        }
+        return hash;
+    }
+
+    private static long checksum(long hash, ArrayList<? extends SimEntity> entities)
+    {
+        for (int i = 0; i < entities.size(); i++)
+        {
+            SimEntity entity = entities.get(i);
+            hash = hash * 31 + entity.getKind();
+            hash = hash * 31 + entity.getFixedX();
+            hash = hash * 31 + entity.getFixedY();
+            hash = hash * 31 + entity.getRotation();
+        }
+        return hash;
+    }
+
+    public void playSound(int effect)
+    {
+        events.publish(SimEvents.SOUND, effect);
+    }
+
+    // Player one, the only player of a single-player game
+    public SimPlayer getPlayer()
+    {
+        return getPlayer(0);
+    }
+
+    public SimPlayer getPlayer(int slot)
+    {
+        for (int i = players.size() - 1; i >= 0; i--)
+        {
+            SimPlayer player = players.get(i);
+            if (player.getSlot() == slot) return player;
+        }
+        return null;
+    }
+
+    // The ship closest to (x, y), or null when there is none
+    public SimPlayer getNearestPlayer(int x, int y)
+    {
+        SimPlayer nearest = null;
+        long nearestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < players.size(); i++)
+        {
+            SimPlayer player = players.get(i);
+            long dx = player.getX() - x;
+            long dy = player.getY() - y;
+            long distance = dx * dx + dy * dy;
+            if (distance < nearestDistance)
+            {
+                nearest = player;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    public SimBoss getBoss()
+    {
+        return bosses.isEmpty() ? null : bosses.get(0);
+    }
+
+    public int getLevel()
+    {
+        return level;
+    }
+
+    public int getLives()
+    {
+        return lives;
+    }
+
+    public int getScore()
+    {
+        return score;
+    }
+
+    public int getStarsLeft()
+    {
+        return starsLeft;
+    }
+
+    public boolean isGameOver()
+    {
+        return gameOver;
+    }
+
+    public boolean isGameWon()
+    {
+        return gameWon;
+    }
+
+    public boolean isLevelComplete()
+    {
+        return levelComplete;
+    }
+
+    public int getLevelChangeTimer()
+    {
+        return levelChangeTimer;
+    }
+
+    public boolean isBossLevel()
+    {
+        return bossLevel;
+    }
+
+    // True while a level is being built or its banner is still up
+    public boolean isStartingLevel()
+    {
+        return transitionTimer > 0 || loader.hasPending();
+    }
+
+    public boolean isShowingBossDefeated()
+    {
+        return bossDefeatedTimer > 0;
+    }
+
+    public long getTickCount()
+    {
+        return tickCount;
+    }
+
+    public int getEntityCount()
+    {
+        // A boss phase is part of its boss, not an entity of its own
+        return players.size() + stars.size() + enemies.size() + bosses.size() + weakPoints.size()
+            + ecs.size() - ecs.getBossPhases().size() + bossBullets.getCount() + swarm.getLiveCount();
+    }
+}
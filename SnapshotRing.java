@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// The last few hundred snapshots of a Simulation, for rewinding. Every slot
+// is a fixed-size region of one buffer, either on the heap or in a memory
+// mapped file so a long history stays out of the Java heap. capture() writes
+// the snapshot straight into the next slot, overwriting the oldest one, so
+// taking one every tick allocates nothing.
+public class SnapshotRing
+{
+    private final ByteBuffer buffer;
+    private final int slots;
+    private final int slotSize;
+    private int newest = -1;
+    private int size = 0;
+
+    public SnapshotRing(int slots, int slotSize)
+    {
+        this(ByteBuffer.allocate(slots * slotSize), slots, slotSize);
+    }
+
+    // The file is created or overwritten and stays mapped while the ring is in use
+    public SnapshotRing(String file, int slots, int slotSize) throws IOException
+    {
+        this(map(file, (long) slots * slotSize), slots, slotSize);
+    }
+
+    private SnapshotRing(ByteBuffer buffer, int slots, int slotSize)
+    {
+        this.buffer = buffer;
+        this.slots = slots;
+        this.slotSize = slotSize;
+    }
+
+    private static ByteBuffer map(String file, long length) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+    }
+
+    // False if the snapshot was larger than a slot; it is then not kept. A
+    // full ring has already written part of it over the oldest snapshot, so
+    // that one is dropped too
+    public boolean capture(Simulation sim)
+    {
+        int slot = newest + 1 == slots ? 0 : newest + 1;
+        select(slot);
+        try
+        {
+            sim.saveSnapshot(buffer);
+        }
+        catch (BufferOverflowException e)
+        {
+            if (size == slots) size--;
+            return false;
+        }
+        newest = slot;
+        size = Math.min(size + 1, slots);
+        return true;
+    }
+
+    // Puts the simulation back to the newest snapshot and drops it; false when none are left
+    public boolean rewind(Simulation sim)
+    {
+        if (size == 0) return false;
+
+        select(newest);
+        sim.restoreSnapshot(buffer);
+        newest = newest == 0 ? slots - 1 : newest - 1;
+        size--;
+        return true;
+    }
+
+    // A heap ring of the same length with larger slots, holding the same snapshots
+    public SnapshotRing withSlotSize(int newSlotSize)
+    {
+        SnapshotRing grown = new SnapshotRing(slots, newSlotSize);
+        for (int age = size - 1; age >= 0; age--)
+        {
+            int slot = ((newest - age) % slots + slots) % slots;
+            select(slot);
+            grown.newest++;
+            grown.select(grown.newest);
+            grown.buffer.put(buffer);
+            grown.size++;
+        }
+        return grown;
+    }
+
+    public void clear()
+    {
+        newest = -1;
+        size = 0;
+    }
+
+    private void select(int slot)
+    {
+        buffer.limit(slot * slotSize + slotSize);
+        buffer.position(slot * slotSize);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int getSlots()
+    {
+        return slots;
+    }
+
+    public int getSlotSize()
+    {
+        return slotSize;
+    }
+}
@@ -0,0 +1,15 @@
+// Where SoundManager gets its voices from: Greenfoot sounds in the game,
+// silent ones when running headless or in tests.
+public interface SoundBackend
+{
+    interface Voice
+    {
+        void play();
+
+        void stop();
+
+        boolean isPlaying();
+    }
+
+    Voice load(String file);
+}
@@ -0,0 +1,35 @@
+import greenfoot.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// GreenfootSounds made ahead of time, e.g. by AssetPreloader on a background
+// thread. Unlike images a sound cannot be shared (each one plays on its own),
+// so take() hands out each preloaded copy once and makes a new one when none
+// is waiting.
+public class SoundCache
+{
+    private static final ConcurrentHashMap<String, ConcurrentLinkedQueue<GreenfootSound>> sounds =
+        new ConcurrentHashMap<String, ConcurrentLinkedQueue<GreenfootSound>>();
+
+    public static void preload(String file)
+    {
+        queue(file).add(new GreenfootSound(file));
+    }
+
+    public static GreenfootSound take(String file)
+    {
+        GreenfootSound sound = queue(file).poll();
+        return sound != null ? sound : new GreenfootSound(file);
+    }
+
+    private static ConcurrentLinkedQueue<GreenfootSound> queue(String file)
+    {
+        ConcurrentLinkedQueue<GreenfootSound> queue = sounds.get(file);
+        if (queue == null)
+        {
+            sounds.putIfAbsent(file, new ConcurrentLinkedQueue<GreenfootSound>());
+            queue = sounds.get(file);
+        }
+        return queue;
+    }
+}
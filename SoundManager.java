@@ -0,0 +1,120 @@
+// Sound effects for the game. Every effect is loaded once into a few voices.
+// Triggers are collected during a tick and played in endTick(), so the same
+// effect fired several times in one tick plays once, and an effect never
+// has more than its voice count playing at the same time.
+public class SoundManager
+{
+    public static final int FIRE = 0;
+    public static final int HIT = 1;
+    public static final int KUHA = 2;
+    public static final int RESPAWN = 3;
+    public static final int NEXT_LEVEL = 4;
+    public static final int EFFECTS = 5;
+
+    private static final String[] FILES = {
+        "fire.mp3", "hit.mp3", "kuha.mp3", "respawn.mp3", "nextlevel.mp3"
+    };
+
+    // Most overlapping copies of each effect
+    private static final int[] VOICES = { 4, 3, 2, 1, 1 };
+
+    private final SoundBackend.Voice[][] voices = new SoundBackend.Voice[EFFECTS][];
+    private final int[] nextVoice = new int[EFFECTS];
+    private int pending = 0;
+
+    private long played = 0;
+    private long merged = 0;
+    private long dropped = 0;
+
+    public SoundManager(SoundBackend backend)
+    {
+        for (int effect = 0; effect < EFFECTS; effect++)
+        {
+            voices[effect] = new SoundBackend.Voice[VOICES[effect]];
+            for (int i = 0; i < VOICES[effect]; i++)
+            {
+                voices[effect][i] = backend.load(FILES[effect]);
+            }
+        }
+    }
+
+    public void trigger(int effect)
+    {
+        int bit = 1 << effect;
+        if ((pending & bit) != 0)
+        {
+            merged++;
+        }
+        pending |= bit;
+    }
+
+    // Plays everything triggered since the last call
+    public void endTick()
+    {
+        for (int effect = 0; pending != 0; effect++)
+        {
+            int bit = 1 << effect;
+            if ((pending & bit) != 0)
+            {
+                pending &= ~bit;
+                play(effect);
+            }
+        }
+    }
+
+    private void play(int effect)
+    {
+        SoundBackend.Voice[] pool = voices[effect];
+        for (int i = 0; i < pool.length; i++)
+        {
+            int index = (nextVoice[effect] + i) % pool.length;
+            if (!pool[index].isPlaying())
+            {
+                pool[index].play();
+                nextVoice[effect] = (index + 1) % pool.length;
+                played++;
+                return;
+            }
+        }
+        dropped++;
+    }
+
+    public void stopAll()
+    {
+        pending = 0;
+        for (SoundBackend.Voice[] pool : voices)
+        {
+            for (SoundBackend.Voice voice : pool)
+            {
+                voice.stop();
+            }
+        }
+    }
+
+    public static String getFile(int effect)
+    {
+        return FILES[effect];
+    }
+
+    public static int getVoiceCount(int effect)
+    {
+        return VOICES[effect];
+    }
+
+    public long getPlayedCount()
+    {
+        return played;
+    }
+
+    // Triggers folded into one already pending in the same tick
+    public long getMergedCount()
+    {
+        return merged;
+    }
+
+    // Triggers skipped because every voice of the effect was busy
+    public long getDroppedCount()
+    {
+        return dropped;
+    }
+}
@@ -0,0 +1,216 @@
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// Uniform-grid broadphase for the Simulation. Every live entity sits in the
+// bucket of the cell holding its centre, one bucket list per entity kind, and
+// is relinked as it moves. "What of kind X overlaps me" then only walks the
+// cells within reach of the largest entity of that kind.
+public class SpatialHash
+{
+    public static final int CELL_SIZE = 64;
+
+    private final int columns;
+    private final int rows;
+    private final SimEntity[][] heads;
+    private final int[] maxHalfWidth;
+    private final int[] maxHalfHeight;
+    private SimEntity[] scratch = new SimEntity[16];
+
+    public SpatialHash(int width, int height)
+    {
+        columns = (width + CELL_SIZE - 1) / CELL_SIZE;
+        rows = (height + CELL_SIZE - 1) / CELL_SIZE;
+        heads = new SimEntity[SimEntity.KINDS][columns * rows];
+        maxHalfWidth = new int[SimEntity.KINDS];
+        maxHalfHeight = new int[SimEntity.KINDS];
+    }
+
+    public void insert(SimEntity entity)
+    {
+        int kind = entity.getKind();
+        maxHalfWidth[kind] = Math.max(maxHalfWidth[kind], (entity.getWidth() + 1) / 2);
+        maxHalfHeight[kind] = Math.max(maxHalfHeight[kind], (entity.getHeight() + 1) / 2);
+        link(entity, cellOf(entity.getX(), entity.getY()));
+    }
+
+    public void remove(SimEntity entity)
+    {
+        if (entity.cell >= 0)
+        {
+            unlink(entity);
+        }
+    }
+
+    public void moved(SimEntity entity)
+    {
+        int cell = cellOf(entity.getX(), entity.getY());
+        if (cell != entity.cell)
+        {
+            unlink(entity);
+            link(entity, cell);
+        }
+    }
+
+    public SimEntity findFirst(SimEntity self, int kind)
+    {
+        return findFirstAlong(self, kind, self.getX(), self.getY());
+    }
+
+    // First entity of the kind that self touched moving from (fromX, fromY)
+    // to where it is now; the cells searched cover the whole move
+    public SimEntity findFirstAlong(SimEntity self, int kind, int fromX, int fromY)
+    {
+        return findFirstAlong(self, kind, fromX, fromY, self.getX(), self.getY(), self.getWidth(), self.getHeight());
+    }
+
+    // Same for a width x height box that is not an entity, e.g. one from the
+    // Ecs, moving from (fromX, fromY) to (x, y); self is skipped unless null
+    public SimEntity findFirstAlong(SimEntity self, int kind, int fromX, int fromY,
+                                   int x, int y, int width, int height)
+    {
+        int reachX = (width + 1) / 2 + maxHalfWidth[kind];
+        int reachY = (height + 1) / 2 + maxHalfHeight[kind];
+        int firstColumn = column(Math.min(fromX, x) - reachX);
+        int lastColumn = column(Math.max(fromX, x) + reachX);
+        int firstRow = row(Math.min(fromY, y) - reachY);
+        int lastRow = row(Math.max(fromY, y) + reachY);
+
+        SimEntity[] buckets = heads[kind];
+        for (int r = firstRow; r <= lastRow; r++)
+        {
+            for (int c = firstColumn; c <= lastColumn; c++)
+            {
+                for (SimEntity other = buckets[r * columns + c]; other != null; other = other.nextInCell)
+                {
+                    if (other != self && Sweep.hits(fromX, fromY, x, y, width, height, other.getX(), other.getY(),
+                                                    other.getWidth(), other.getHeight()))
+                    {
+                        return other;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // Bucket order decides which of several overlapping entities a query
+    // finds, so snapshots keep it: the non-empty cells of one kind, each with
+    // its entities as snapshotIndex values, head first
+    void saveOrder(ByteBuffer out, int kind)
+    {
+        SimEntity[] buckets = heads[kind];
+        int cells = 0;
+        for (int cell = 0; cell < buckets.length; cell++)
+        {
+            if (buckets[cell] != null) cells++;
+        }
+        out.putShort((short) cells);
+
+        for (int cell = 0; cell < buckets.length; cell++)
+        {
+            if (buckets[cell] == null) continue;
+
+            int size = 0;
+            for (SimEntity e = buckets[cell]; e != null; e = e.nextInCell) size++;
+            out.putShort((short) cell);
+            out.putShort((short) size);
+            for (SimEntity e = buckets[cell]; e != null; e = e.nextInCell)
+            {
+                out.putShort((short) e.snapshotIndex);
+            }
+        }
+    }
+
+    // The entities are already inserted; this only puts each bucket back in order
+    void loadOrder(ByteBuffer in, int kind, List<? extends SimEntity> entities)
+    {
+        int cells = in.getShort();
+        for (int c = 0; c < cells; c++)
+        {
+            int cell = in.getShort();
+            int size = in.getShort();
+            if (size > scratch.length)
+            {
+                scratch = new SimEntity[size * 2];
+            }
+            for (int i = 0; i < size; i++)
+            {
+                scratch[i] = entities.get(in.getShort());
+                unlink(scratch[i]);
+            }
+            for (int i = size - 1; i >= 0; i--)
+            {
+                link(scratch[i], cell);
+                scratch[i] = null;
+            }
+        }
+    }
+
+    public void clear()
+    {
+        for (SimEntity[] buckets : heads)
+        {
+            for (int cell = 0; cell < buckets.length; cell++)
+            {
+                SimEntity entity = buckets[cell];
+                while (entity != null)
+                {
+                    SimEntity next = entity.nextInCell;
+                    entity.cell = -1;
+                    entity.nextInCell = null;
+                    entity.prevInCell = null;
+                    entity = next;
+                }
+                buckets[cell] = null;
+            }
+        }
+    }
+
+    private void link(SimEntity entity, int cell)
+    {
+        SimEntity[] buckets = heads[entity.getKind()];
+        SimEntity head = buckets[cell];
+        entity.cell = cell;
+        entity.prevInCell = null;
+        entity.nextInCell = head;
+        if (head != null)
+        {
+            head.prevInCell = entity;
+        }
+        buckets[cell] = entity;
+    }
+
+    private void unlink(SimEntity entity)
+    {
+        if (entity.prevInCell != null)
+        {
+            entity.prevInCell.nextInCell = entity.nextInCell;
+        }
+        else
+        {
+            heads[entity.getKind()][entity.cell] = entity.nextInCell;
+        }
+        if (entity.nextInCell != null)
+        {
+            entity.nextInCell.prevInCell = entity.prevInCell;
+        }
+        entity.cell = -1;
+        entity.nextInCell = null;
+        entity.prevInCell = null;
+    }
+
+    private int cellOf(int x, int y)
+    {
+        return row(y) * columns + column(x);
+    }
+
+    private int column(int x)
+    {
+        return Math.max(0, Math.min(columns - 1, x / CELL_SIZE));
+    }
+
+    private int row(int y)
+    {
+        return Math.max(0, Math.min(rows - 1, y / CELL_SIZE));
+    }
+}
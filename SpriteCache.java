@@ -0,0 +1,145 @@
+import greenfoot.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Process-wide image cache. Each asset is decoded, scaled and tinted once per
+// (file, size, tint) and every actor gets the same GreenfootImage back, so the
+// images handed out are shared and must not be drawn on. Safe to call from
+// any thread: AssetPreloader fills it in the background, and an image asked
+// for while another thread is still making it is waited for, not made twice.
+public class SpriteCache
+{
+    private static final ConcurrentHashMap<String, FutureTask<GreenfootImage>> images =
+        new ConcurrentHashMap<String, FutureTask<GreenfootImage>>();
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger misses = new AtomicInteger();
+    private static final AtomicLong bytesHeld = new AtomicLong();
+
+    public static GreenfootImage get(String file, int width, int height)
+    {
+        return get(file, width, height, null);
+    }
+
+    // Tinted copies are filled with the tint colour on top of the scaled image
+    public static GreenfootImage get(String file, int width, int height, Color tint)
+    {
+        String key = file + "@" + width + "x" + height + (tint == null ? "" : "#" + rgba(tint));
+        return load(key, () -> {
+            GreenfootImage image;
+            if (tint == null)
+            {
+                image = new GreenfootImage(file);
+                image.scale(width, height);
+            }
+            else
+            {
+                image = new GreenfootImage(get(file, width, height, null));
+                image.setTransparency(255);
+                image.setColor(tint);
+                image.fill();
+            }
+            return image;
+        });
+    }
+
+    // Procedurally drawn sprites, painted once under the given name
+    public static GreenfootImage painted(String name, int width, int height, Consumer<GreenfootImage> painter)
+    {
+        String key = "painted:" + name + "@" + width + "x" + height;
+        return load(key, () -> {
+            GreenfootImage image = new GreenfootImage(width, height);
+            painter.accept(image);
+            return image;
+        });
+    }
+
+    // Fully transparent image, e.g. for the invisible half of a blink
+    public static GreenfootImage blank(int width, int height)
+    {
+        return painted("blank", width, height, image -> {});
+    }
+
+    // The first caller for a key makes the image on its own thread; a failed
+    // image is not kept, so the next call tries again
+    private static GreenfootImage load(String key, Callable<GreenfootImage> maker)
+    {
+        FutureTask<GreenfootImage> task = images.get(key);
+        boolean made = false;
+        if (task == null)
+        {
+            FutureTask<GreenfootImage> created = new FutureTask<GreenfootImage>(maker);
+            task = images.putIfAbsent(key, created);
+            if (task == null)
+            {
+                task = created;
+                made = true;
+                created.run();
+            }
+        }
+
+        try
+        {
+            GreenfootImage image = task.get();
+            if (made)
+            {
+                misses.incrementAndGet();
+                bytesHeld.addAndGet(4L * image.getWidth() * image.getHeight());
+            }
+            else
+            {
+                hits.incrementAndGet();
+            }
+            return image;
+        }
+        catch (ExecutionException e)
+        {
+            images.remove(key, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Could not make " + key, cause);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + key, e);
+        }
+    }
+
+    private static String rgba(Color color)
+    {
+        return color.getRed() + "," + color.getGreen() + "," + color.getBlue() + "," + color.getAlpha();
+    }
+
+    public static int getHits()
+    {
+        return hits.get();
+    }
+
+    public static int getMisses()
+    {
+        return misses.get();
+    }
+
+    // Approximate pixel memory of all cached images (4 bytes per pixel)
+    public static long getBytesHeld()
+    {
+        return bytesHeld.get();
+    }
+
+    public static int size()
+    {
+        return images.size();
+    }
+
+    public static String describe()
+    {
+        return "Sprites: " + images.size() + "  hits " + hits.get() + "  misses " + misses.get()
+            + "  " + (bytesHeld.get() / 1024) + " KB";
+    }
+}
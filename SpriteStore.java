@@ -0,0 +1,55 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// What an entity looks like: a sprite id and the angle to draw it at. The
+// ids only mean something to whatever draws the Ecs, see EcsLayer.
+public class SpriteStore extends ComponentStore
+{
+    // Sprite ids
+    public static final int BULLET = 0;
+    public static final int SPRITES = 1;
+
+    int[] sprite = new int[64];
+    int[] rotation = new int[64];
+
+    public void add(int id, int spriteId, int angle)
+    {
+        int slot = insert(id);
+        sprite[slot] = spriteId;
+        rotation[slot] = Motion.normalize(angle);
+    }
+
+    public int getSprite(int slot)
+    {
+        return sprite[slot];
+    }
+
+    public int getRotation(int slot)
+    {
+        return rotation[slot];
+    }
+
+    protected void grow(int capacity)
+    {
+        sprite = Arrays.copyOf(sprite, capacity);
+        rotation = Arrays.copyOf(rotation, capacity);
+    }
+
+    protected void move(int from, int to)
+    {
+        sprite[to] = sprite[from];
+        rotation[to] = rotation[from];
+    }
+
+    protected void saveSlot(ByteBuffer out, int slot)
+    {
+        out.put((byte) sprite[slot]);
+        out.putShort((short) rotation[slot]);
+    }
+
+    protected void loadSlot(ByteBuffer in, int slot)
+    {
+        sprite[slot] = in.get();
+        rotation[slot] = in.getShort();
+    }
+}
@@ -0,0 +1,49 @@
+import greenfoot.*;
+
+// Draws every swarm-mode enemy into one full-screen image in a single pass,
+// instead of one Enemy actor per enemy.
+public class SwarmLayer extends Actor
+{
+    private final EnemySwarm swarm;
+    private final GreenfootImage canvas;
+    private final GreenfootImage enemyImage;
+    private boolean empty = true;
+
+    public SwarmLayer(EnemySwarm swarm, int width, int height)
+    {
+        this.swarm = swarm;
+        canvas = new GreenfootImage(width, height);
+        enemyImage = SpriteCache.get("enemy.png", EnemySwarm.SIZE, EnemySwarm.SIZE);
+        setImage(SpriteCache.blank(1, 1));
+    }
+
+    public void act()
+    {
+        int slots = swarm.getSlotCount();
+        if (slots == 0)
+        {
+            if (!empty)
+            {
+                setImage(SpriteCache.blank(1, 1));
+                empty = true;
+            }
+            return;
+        }
+
+        canvas.clear();
+        int half = EnemySwarm.SIZE / 2;
+        for (int i = 0; i < slots; i++)
+        {
+            if (!swarm.isRemoved(i))
+            {
+                canvas.drawImage(enemyImage, swarm.getX(i) - half, swarm.getY(i) - half);
+            }
+        }
+
+        if (empty)
+        {
+            setImage(canvas);
+            empty = false;
+        }
+    }
+}
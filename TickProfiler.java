@@ -0,0 +1,342 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Per-tick instrumentation for a Simulation: for every entity class, the time
+// its act() pass took, how many act() calls it made, how many instances were
+// live and how many bytes it allocated; for the whole tick and for frames,
+// a window of recent times for percentiles. The Simulation only calls in here
+// while a profiler is set, so with none set the cost is a null check per pass.
+public class TickProfiler
+{
+    // Sections are the SimEntity kinds, then the swarm and boss bullet updates
+    public static final int SWARM = SimEntity.KINDS;
+    public static final int BOSS_BULLETS = SimEntity.KINDS + 1;
+    public static final int SECTIONS = SimEntity.KINDS + 2;
+    private static final String[] NAMES = {
+        "Player", "Star", "Enemy", "Boss", "WeakPoint", "Bullet", "Swarm", "BossBullet"
+    };
+
+    // Ticks and frames kept for percentiles
+    public static final int WINDOW = 1024;
+
+    // Called after every profiled tick, e.g. by JfrTickSink
+    public interface Listener
+    {
+        void tickProfiled(TickProfiler profiler);
+    }
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    // Last tick
+    private final long[] lastNanos = new long[SECTIONS];
+    private final int[] lastCalls = new int[SECTIONS];
+    private final int[] lastInstances = new int[SECTIONS];
+    private final long[] lastAllocated = new long[SECTIONS];
+    private long lastTickNanos;
+    private long lastTickAllocated;
+    private int lastEntityCount;
+
+    // Totals since the last reset
+    private final long[] totalNanos = new long[SECTIONS];
+    private final long[] totalCalls = new long[SECTIONS];
+    private final long[] totalAllocated = new long[SECTIONS];
+    private final int[] peakInstances = new int[SECTIONS];
+    private long ticks = 0;
+    private long totalTickNanos = 0;
+    private long totalTickAllocated = 0;
+
+    private final long[] tickWindow = new long[WINDOW];
+    private final long[] frameWindow = new long[WINDOW];
+    private long frames = 0;
+    private long lastFrameStart = 0;
+
+    private long tickStart;
+    private long tickAllocationStart;
+    private long sectionAllocationStart;
+
+    private final ArrayList<Listener> listeners = new ArrayList<Listener>();
+
+    public TickProfiler()
+    {
+        // JFR events are only compiled where jdk.jfr exists (the benchmarks
+        // module on JDK 11+); when they are on the classpath, feed them too
+        try
+        {
+            addListener((Listener) Class.forName("JfrTickSink").getDeclaredConstructor().newInstance());
+        }
+        catch (ReflectiveOperationException | LinkageError e)
+        {
+            // No JFR here
+        }
+    }
+
+    public void addListener(Listener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public void beginTick()
+    {
+        Arrays.fill(lastNanos, 0);
+        Arrays.fill(lastCalls, 0);
+        Arrays.fill(lastInstances, 0);
+        Arrays.fill(lastAllocated, 0);
+        tickAllocationStart = allocatedBytes();
+        tickStart = System.nanoTime();
+    }
+
+    public void endTick(int entityCount)
+    {
+        lastTickNanos = System.nanoTime() - tickStart;
+        lastTickAllocated = allocatedBytes() - tickAllocationStart;
+        lastEntityCount = entityCount;
+
+        tickWindow[(int) (ticks % WINDOW)] = lastTickNanos;
+        ticks++;
+        totalTickNanos += lastTickNanos;
+        totalTickAllocated += lastTickAllocated;
+
+        for (int i = 0; i < listeners.size(); i++)
+        {
+            listeners.get(i).tickProfiled(this);
+        }
+    }
+
+    public long beginSection()
+    {
+        sectionAllocationStart = allocatedBytes();
+        return System.nanoTime();
+    }
+
+    public void endSection(int section, long start, int calls, int instances)
+    {
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - sectionAllocationStart;
+
+        lastNanos[section] = nanos;
+        lastCalls[section] = calls;
+        lastInstances[section] = instances;
+        lastAllocated[section] = allocated;
+
+        totalNanos[section] += nanos;
+        totalCalls[section] += calls;
+        totalAllocated[section] += allocated;
+        peakInstances[section] = Math.max(peakInstances[section], instances);
+    }
+
+    // Called once per displayed frame; the time between calls is the frame time
+    public void frame()
+    {
+        long now = System.nanoTime();
+        if (lastFrameStart != 0)
+        {
+            frameWindow[(int) (frames % WINDOW)] = now - lastFrameStart;
+            frames++;
+        }
+        lastFrameStart = now;
+    }
+
+    public void reset()
+    {
+        Arrays.fill(totalNanos, 0);
+        Arrays.fill(totalCalls, 0);
+        Arrays.fill(totalAllocated, 0);
+        Arrays.fill(peakInstances, 0);
+        ticks = 0;
+        totalTickNanos = 0;
+        totalTickAllocated = 0;
+        frames = 0;
+        lastFrameStart = 0;
+    }
+
+    // p is 0 to 100; 0 when nothing was recorded yet
+    public long tickPercentile(double p)
+    {
+        return percentile(tickWindow, ticks, p);
+    }
+
+    public long framePercentile(double p)
+    {
+        return percentile(frameWindow, frames, p);
+    }
+
+    private static long percentile(long[] window, long recorded, double p)
+    {
+        int count = (int) Math.min(recorded, WINDOW);
+        if (count == 0) return 0;
+
+        long[] sorted = Arrays.copyOf(window, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    // Writes CSV for a .csv file name and JSON otherwise
+    public void save(String file) throws IOException
+    {
+        try (Writer out = new FileWriter(file))
+        {
+            if (file.endsWith(".csv")) writeCsv(out);
+            else writeJson(out);
+        }
+    }
+
+    public void writeCsv(Appendable out) throws IOException
+    {
+        out.append("section,calls,calls_per_tick,avg_ns_per_tick,ns_per_call,bytes_per_tick,peak_instances\n");
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            out.append(NAMES[s]).append(',')
+                .append(Long.toString(totalCalls[s])).append(',')
+                .append(format(perTick(totalCalls[s]))).append(',')
+                .append(format(perTick(totalNanos[s]))).append(',')
+                .append(format(totalCalls[s] == 0 ? 0 : (double) totalNanos[s] / totalCalls[s])).append(',')
+                .append(format(perTick(totalAllocated[s]))).append(',')
+                .append(Integer.toString(peakInstances[s])).append('\n');
+        }
+        out.append("Tick,").append(Long.toString(ticks)).append(",1,")
+            .append(format(perTick(totalTickNanos))).append(",,")
+            .append(format(perTick(totalTickAllocated))).append(",\n");
+        out.append("\npercentile,tick_ns,frame_ns\n");
+        out.append("p50,").append(Long.toString(tickPercentile(50))).append(',')
+            .append(Long.toString(framePercentile(50))).append('\n');
+        out.append("p99,").append(Long.toString(tickPercentile(99))).append(',')
+            .append(Long.toString(framePercentile(99))).append('\n');
+        out.append("max,").append(Long.toString(tickPercentile(100))).append(',')
+            .append(Long.toString(framePercentile(100))).append('\n');
+    }
+
+    public void writeJson(Appendable out) throws IOException
+    {
+        out.append("{\n  \"ticks\": ").append(Long.toString(ticks))
+            .append(",\n  \"avgTickNanos\": ").append(format(perTick(totalTickNanos)))
+            .append(",\n  \"bytesPerTick\": ").append(format(perTick(totalTickAllocated)))
+            .append(",\n  \"tickNanos\": { \"p50\": ").append(Long.toString(tickPercentile(50)))
+            .append(", \"p99\": ").append(Long.toString(tickPercentile(99)))
+            .append(", \"max\": ").append(Long.toString(tickPercentile(100)))
+            .append(" },\n  \"frameNanos\": { \"p50\": ").append(Long.toString(framePercentile(50)))
+            .append(", \"p99\": ").append(Long.toString(framePercentile(99)))
+            .append(", \"max\": ").append(Long.toString(framePercentile(100)))
+            .append(" },\n  \"sections\": [");
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            out.append(s == 0 ? "\n" : ",\n")
+                .append("    { \"name\": \"").append(NAMES[s])
+                .append("\", \"calls\": ").append(Long.toString(totalCalls[s]))
+                .append(", \"avgNanosPerTick\": ").append(format(perTick(totalNanos[s])))
+                .append(", \"bytesPerTick\": ").append(format(perTick(totalAllocated[s])))
+                .append(", \"peakInstances\": ").append(Integer.toString(peakInstances[s]))
+                .append(" }");
+        }
+        out.append("\n  ]\n}\n");
+    }
+
+    private double perTick(long total)
+    {
+        return ticks == 0 ? 0 : (double) total / ticks;
+    }
+
+    private static String format(double value)
+    {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    // Bytes this thread has allocated so far, or 0 where the JVM cannot tell
+    private static long allocatedBytes()
+    {
+        return ALLOCATION != null ? ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean()
+    {
+        try
+        {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean)
+            {
+                com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+                if (hotspot.isThreadAllocatedMemorySupported())
+                {
+                    hotspot.setThreadAllocatedMemoryEnabled(true);
+                    return hotspot;
+                }
+            }
+        }
+        catch (LinkageError | UnsupportedOperationException | SecurityException e)
+        {
+            // Allocation stays 0
+        }
+        return null;
+    }
+
+    public static String getName(int section)
+    {
+        return NAMES[section];
+    }
+
+    public long getTicks()
+    {
+        return ticks;
+    }
+
+    public long getLastTickNanos()
+    {
+        return lastTickNanos;
+    }
+
+    public long getLastTickAllocated()
+    {
+        return lastTickAllocated;
+    }
+
+    public int getLastEntityCount()
+    {
+        return lastEntityCount;
+    }
+
+    public long getLastNanos(int section)
+    {
+        return lastNanos[section];
+    }
+
+    public int getLastCalls(int section)
+    {
+        return lastCalls[section];
+    }
+
+    public int getLastInstances(int section)
+    {
+        return lastInstances[section];
+    }
+
+    public long getLastAllocated(int section)
+    {
+        return lastAllocated[section];
+    }
+
+    public double getAverageNanos(int section)
+    {
+        return perTick(totalNanos[section]);
+    }
+
+    public double getAverageAllocated(int section)
+    {
+        return perTick(totalAllocated[section]);
+    }
+
+    public double getAverageTickNanos()
+    {
+        return perTick(totalTickNanos);
+    }
+
+    public double getAverageTickAllocated()
+    {
+        return perTick(totalTickAllocated);
+    }
+}
@@ -1,13 +1,23 @@
 import greenfoot.*;
+import java.io.IOException;
 
 public class TitleScreen extends World
 {
     private GreenfootSound introMusic = new GreenfootSound("intro.mp3");
 
+    // the game's seed is picked now so level 1 can be laid out while the menu is up
+    private long seed = System.nanoTime();
+    private LevelCache layouts = new LevelCache(seed, GameWorld.LEVEL_CACHE_SIZE, LevelCache.backgroundExecutor());
+    private int shownProgress = -1;
+
     public TitleScreen()
     {    
         super(800, 600, 1); // world size
 
+        // start loading the game's images and sounds in the background
+        AssetPreloader.start();
+        layouts.prefetch(1, 0);
+
         // load and scale background image
         GreenfootImage bg = new GreenfootImage("introbg.png");
         bg.scale(getWidth(), getHeight());
@@ -23,13 +33,54 @@ public class TitleScreen extends World
         showText("SPACE - Shoot enemies", getWidth()/2, 290);
         showText("⭐ Collect all stars to level up ⭐", getWidth()/2, 320);
         showText("⚠ Avoid enemies or you lose!", getWidth()/2, 350);
-        showText("Press ENTER to Start", getWidth()/2, 420);
+        showText("Co-op: H to host a 2-player game, J to join one on this machine", getWidth()/2, 470);
+        showProgress();
     }
 
     public void act() {
-        if (Greenfoot.isKeyDown("enter")) {
+        showProgress();
+        if (Greenfoot.isKeyDown("enter") && AssetPreloader.isDone()) {
+            long enterTime = System.nanoTime();
             introMusic.stop(); // stop music when switching worlds
-            Greenfoot.setWorld(new GameWorld());
+            GameWorld game = new GameWorld(seed, layouts);
+            game.setLaunchTime(enterTime);
+            Greenfoot.setWorld(game);
+        }
+        else if (Greenfoot.isKeyDown("h") && AssetPreloader.isDone()) {
+            startNetGame(true);
+        }
+        else if (Greenfoot.isKeyDown("j") && AssetPreloader.isDone()) {
+            startNetGame(false);
+        }
+    }
+
+    // hosting runs the server on a thread of its own in this process and joins it as player 1
+    private void startNetGame(boolean host) {
+        NetServer server = null;
+        try {
+            if (host) {
+                server = new NetServer(NetProtocol.DEFAULT_PORT, Simulation.MAX_PLAYERS, seed);
+                server.open();
+                Thread thread = new Thread(server, "NetServer");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            NetWorld game = new NetWorld("localhost", NetProtocol.DEFAULT_PORT, server);
+            introMusic.stop();
+            Greenfoot.setWorld(game);
+        } catch (IOException e) {
+            if (server != null) server.stop();
+            showText("Network error: " + e.getMessage(), getWidth()/2, 500);
+        }
+    }
+
+    // loading percentage until every asset is in, then the start prompt
+    private void showProgress() {
+        int progress = AssetPreloader.isDone() ? 100 : AssetPreloader.getProgress();
+        if (progress != shownProgress) {
+            shownProgress = progress;
+            showText(progress == 100 ? "Press ENTER to Start" : "Loading... " + progress + "%",
+                     getWidth()/2, 420);
         }
     }
 
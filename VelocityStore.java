@@ -0,0 +1,51 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// A constant step per tick in Motion fixed point, worked out once from a
+// speed and heading when the component is added.
+public class VelocityStore extends ComponentStore
+{
+    int[] stepX = new int[64];
+    int[] stepY = new int[64];
+
+    public void add(int id, int speed, int heading)
+    {
+        int slot = insert(id);
+        stepX[slot] = Motion.stepX(speed, heading);
+        stepY[slot] = Motion.stepY(speed, heading);
+    }
+
+    public int getStepX(int slot)
+    {
+        return stepX[slot];
+    }
+
+    public int getStepY(int slot)
+    {
+        return stepY[slot];
+    }
+
+    protected void grow(int capacity)
+    {
+        stepX = Arrays.copyOf(stepX, capacity);
+        stepY = Arrays.copyOf(stepY, capacity);
+    }
+
+    protected void move(int from, int to)
+    {
+        stepX[to] = stepX[from];
+        stepY[to] = stepY[from];
+    }
+
+    protected void saveSlot(ByteBuffer out, int slot)
+    {
+        out.putInt(stepX[slot]);
+        out.putInt(stepY[slot]);
+    }
+
+    protected void loadSlot(ByteBuffer in, int slot)
+    {
+        stepX[slot] = in.getInt();
+        stepY[slot] = in.getInt();
+    }
+}
@@ -0,0 +1,34 @@
+// The HeadlessRunner bot: holds fire and walks one of the 8 directions,
+// picking a new one every 45 ticks. It rolls its own numbers, so the game's
+// random sequence stays the game's.
+public class WanderPolicy implements InputPolicy
+{
+    private static final int[] DIRECTIONS = {
+        Simulation.KEY_RIGHT,
+        Simulation.KEY_RIGHT | Simulation.KEY_DOWN,
+        Simulation.KEY_DOWN,
+        Simulation.KEY_DOWN | Simulation.KEY_LEFT,
+        Simulation.KEY_LEFT,
+        Simulation.KEY_LEFT | Simulation.KEY_UP,
+        Simulation.KEY_UP,
+        Simulation.KEY_UP | Simulation.KEY_RIGHT
+    };
+
+    private final SeededRandom random;
+    private long ticks = 0;
+    private int heading = 0;
+
+    public WanderPolicy(long seed)
+    {
+        random = new SeededRandom(seed);
+    }
+
+    public int nextInput(Simulation sim)
+    {
+        if (ticks++ % 45 == 0)
+        {
+            heading = random.nextInt(DIRECTIONS.length);
+        }
+        return DIRECTIONS[heading] | Simulation.KEY_FIRE;
+    }
+}
@@ -0,0 +1,86 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Turns TickProfiler samples into JFR events: one GameWorld.Tick per tick and
+// one GameWorld.Section per entity class that ran. TickProfiler attaches it
+// by name when it is on the classpath; it needs jdk.jfr, so it is only built
+// on JDK 11+. Events are free unless a recording is running, e.g.
+// java -XX:StartFlightRecording=filename=run.jfr -Dprofile=run.csv -cp target/benchmarks.jar ReplayRunner last.replay
+public class JfrTickSink implements TickProfiler.Listener
+{
+    @Name("GameWorld.Tick")
+    @Label("Simulation Tick")
+    @Category("GameWorld")
+    static class TickEvent extends Event
+    {
+        @Label("Tick")
+        long tick;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+
+        @Label("Entities")
+        int entities;
+    }
+
+    @Name("GameWorld.Section")
+    @Label("Entity Class Update")
+    @Category("GameWorld")
+    static class SectionEvent extends Event
+    {
+        @Label("Class")
+        String section;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+
+        @Label("act() Calls")
+        int calls;
+
+        @Label("Live Instances")
+        int instances;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    public void tickProfiled(TickProfiler profiler)
+    {
+        TickEvent tick = new TickEvent();
+        if (tick.shouldCommit())
+        {
+            tick.tick = profiler.getTicks();
+            tick.nanos = profiler.getLastTickNanos();
+            tick.allocated = profiler.getLastTickAllocated();
+            tick.entities = profiler.getLastEntityCount();
+            tick.commit();
+        }
+
+        for (int s = 0; s < TickProfiler.SECTIONS; s++)
+        {
+            if (profiler.getLastNanos(s) == 0) continue;
+
+            SectionEvent section = new SectionEvent();
+            if (section.shouldCommit())
+            {
+                section.section = TickProfiler.getName(s);
+                section.nanos = profiler.getLastNanos(s);
+                section.calls = profiler.getLastCalls(s);
+                section.instances = profiler.getLastInstances(s);
+                section.allocated = profiler.getLastAllocated(s);
+                section.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import gameworld.bench.GameHarness;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// GameHarness over a Simulation with no listener and a fixed seed, so every
+// run does the same work. The bot is HeadlessRunner's WanderPolicy.
+public class SimulationHarness implements GameHarness
+{
+    private static final long SEED = 42;
+
+    private final Simulation sim = new Simulation(null, SEED);
+    private final InputPolicy bot = new WanderPolicy(~SEED);
+    // Places the bullets of fillBossBullets()
+    private final SeededRandom random = new SeededRandom(SEED + 1);
+    private int level = 1;
+
+    public void setSwarmSize(int swarmSize)
+    {
+        sim.setSwarmSize(swarmSize);
+    }
+
+    public void setUpdateThreads(int threads)
+    {
+        sim.setUpdatePool(threads > 1 ? new ForkJoinPool(threads) : null);
+    }
+
+    public void startLevel(int level)
+    {
+        this.level = level;
+        sim.startLevel(level);
+        sim.finishLoading();
+    }
+
+    public void tick()
+    {
+        if (sim.isGameOver())
+        {
+            // startLevel() keeps the lost lives, a restart resets them
+            sim.restartGame();
+            startLevel(level);
+        }
+        else if (sim.isLevelComplete() || sim.getLevel() != level)
+        {
+            startLevel(level);
+        }
+
+        sim.tick(bot.nextInput(sim));
+    }
+
+    public int checkPlayerCollisions()
+    {
+        SimPlayer player = sim.getPlayer();
+        if (player == null) return 0;
+
+        int hits = 0;
+        if (sim.getOneIntersecting(player, SimStar.class) != null) hits |= 1 << SimEntity.STAR;
+        if (sim.isTouchingEnemy(player)) hits |= 1 << SimEntity.ENEMY;
+        if (sim.getOneIntersecting(player, SimBoss.class) != null) hits |= 1 << SimEntity.BOSS;
+        if (sim.getBossBullets().findOverlap(player) >= 0) hits |= 1 << SimEntity.KINDS;
+        return hits;
+    }
+
+    public int checkPlayerCollisionsLinear()
+    {
+        SimPlayer player = sim.getPlayer();
+        if (player == null) return 0;
+
+        int hits = 0;
+        if (scan(player, SimStar.class)) hits |= 1 << SimEntity.STAR;
+        if (scan(player, SimEnemy.class)) hits |= 1 << SimEntity.ENEMY;
+        if (scan(player, SimBoss.class)) hits |= 1 << SimEntity.BOSS;
+        if (sim.getBossBullets().findOverlap(player) >= 0) hits |= 1 << SimEntity.KINDS;
+        return hits;
+    }
+
+    private boolean scan(SimEntity self, Class<? extends SimEntity> type)
+    {
+        List<? extends SimEntity> entities = sim.getEntities(type);
+        for (int i = 0; i < entities.size(); i++)
+        {
+            SimEntity other = entities.get(i);
+            if (other.isAlive() && self.intersects(other))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void fillBossBullets(int count)
+    {
+        BossBulletStore bullets = sim.getBossBullets();
+        for (int i = 0; i < count; i++)
+        {
+            bullets.fire(300 + random.nextInt(480), 20 + random.nextInt(560), random.nextInt(360), 0, 1);
+        }
+    }
+
+    public int updateBossBullets()
+    {
+        sim.getBossBullets().update(sim);
+        return sim.getBossBullets().getCount();
+    }
+
+    public int getEntityCount()
+    {
+        return sim.getEntityCount();
+    }
+
+    public boolean hasBoss()
+    {
+        return sim.getBoss() != null;
+    }
+}
@@ -0,0 +1,30 @@
+package gameworld.bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Main class of benchmarks.jar: the usual JMH command line, with the GC
+// profiler always on so every result comes with its allocation rate.
+public class BenchmarkRunner
+{
+    public static void main(String[] args) throws IOException, RunnerException, CommandLineOptionException
+    {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp())
+        {
+            commandLine.showHelp();
+            return;
+        }
+
+        new Runner(new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,46 @@
+package gameworld.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The batched boss bullet pass (move, player test, compaction) over a fixed
+// population of bullets, far beyond what the patterns fire today.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BossBulletBenchmark
+{
+    @Param({"1000", "5000", "20000"})
+    public int bullets;
+
+    private GameHarness game;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        game = GameHarness.create();
+        game.startLevel(5);
+        game.fillBossBullets(bullets);
+    }
+
+    @Benchmark
+    public int update()
+    {
+        return game.updateBossBullets();
+    }
+}
@@ -0,0 +1,56 @@
+package gameworld.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Ticks of a boss level once the fight is under way: the boss moving and
+// firing, its weak points orbiting, boss bullets in flight.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BossFightBenchmark
+{
+    @Param({"5", "50", "100"})
+    public int level;
+
+    private GameHarness game;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        game = GameHarness.create();
+        game.startLevel(level);
+        if (!game.hasBoss())
+        {
+            throw new IllegalStateException("Level " + level + " is not a boss level");
+        }
+
+        // Fill the screen with boss bullets before measuring
+        for (int i = 0; i < 300; i++)
+        {
+            game.tick();
+        }
+    }
+
+    @Benchmark
+    public int fight()
+    {
+        game.tick();
+        return game.getEntityCount();
+    }
+}
@@ -0,0 +1,57 @@
+package gameworld.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The queries SimPlayer.checkCollisions() makes every tick, on a frozen
+// mid-game state, through the spatial hash and as a plain list scan.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollisionBenchmark
+{
+    @Param({"1", "50", "99"})
+    public int level;
+
+    private GameHarness game;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        game = GameHarness.create();
+        game.startLevel(level);
+
+        // Let enemies spread out and bullets fly before freezing the state
+        for (int i = 0; i < 120; i++)
+        {
+            game.tick();
+        }
+    }
+
+    @Benchmark
+    public int spatialHash()
+    {
+        return game.checkPlayerCollisions();
+    }
+
+    @Benchmark
+    public int linearScan()
+    {
+        return game.checkPlayerCollisionsLinear();
+    }
+}
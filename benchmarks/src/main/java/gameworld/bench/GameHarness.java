@@ -0,0 +1,49 @@
+package gameworld.bench;
+
+// What the benchmarks drive. JMH only accepts benchmarks in a named package,
+// and a named package cannot import the scenario's default-package classes,
+// so SimulationHarness (default package) implements this and is found by name.
+public interface GameHarness
+{
+    static GameHarness create()
+    {
+        try
+        {
+            return (GameHarness) Class.forName("SimulationHarness").getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("SimulationHarness is not on the classpath", e);
+        }
+    }
+
+    // Swarm enemies per normal level, set before startLevel()
+    void setSwarmSize(int swarmSize);
+
+    // Threads for the parallel half of an update; 1 runs everything on the caller
+    void setUpdateThreads(int threads);
+
+    // Starts the level with every entity spawned and no banner
+    void startLevel(int level);
+
+    // One tick with the bot's input; the level starts over after a game over
+    // or once it is complete, so the workload stays on the same level
+    void tick();
+
+    // The player's collision queries (star, enemy, boss, boss bullet) through
+    // the spatial hash, and the same queries as a scan of the entity lists.
+    // Both return a bit per kind that was hit and change nothing.
+    int checkPlayerCollisions();
+
+    int checkPlayerCollisionsLinear();
+
+    // Adds count motionless boss bullets well away from the player, then runs
+    // the boss bullet store's move-and-collide pass on its own
+    void fillBossBullets(int count);
+
+    int updateBossBullets();
+
+    int getEntityCount();
+
+    boolean hasBoss();
+}
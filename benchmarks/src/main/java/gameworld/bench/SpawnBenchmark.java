@@ -0,0 +1,45 @@
+package gameworld.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Simulation.startLevel() with every queued entity spawned at once: clearing
+// the previous level, rolling the layout and building the entities.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpawnBenchmark
+{
+    @Param({"1", "50", "99"})
+    public int level;
+
+    private GameHarness game;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        game = GameHarness.create();
+    }
+
+    @Benchmark
+    public int startLevel()
+    {
+        game.startLevel(level);
+        return game.getEntityCount();
+    }
+}
@@ -0,0 +1,51 @@
+package gameworld.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Ticks of a swarm-mode level with thousands of enemies, with the prepare
+// half of the update on 1 to 4 threads, to see how it scales with cores.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwarmBenchmark
+{
+    @Param({"5000", "20000"})
+    public int swarmSize;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private GameHarness game;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        game = GameHarness.create();
+        game.setSwarmSize(swarmSize);
+        game.setUpdateThreads(threads);
+        game.startLevel(1);
+    }
+
+    @Benchmark
+    public int tick()
+    {
+        game.tick();
+        return game.getEntityCount();
+    }
+}